@@ -0,0 +1,590 @@
+import cpu6502.CPU6502;
+import cpu6502.CpuCore;
+import cpu6502.ExecutionHistory;
+import cpu6502.IoHandler;
+import cpu6502.Memory;
+import cpu6502.OamDma;
+import cpu6502.PrecompiledBlocks;
+import cpu6502.RamPage;
+import cpu6502.RomPage;
+import cpu6502.StaticRecompiler;
+import mapper.Mapper;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+// Conformance suite shared by the two CPU cores: the same programs run on the fast
+// core and the cycle-stepped core and must leave the same registers, flags, cycle
+// counts and memory behind
+public class TestCpuCores {
+    private static int failures = 0;
+
+    // Indexed loads/stores across page boundaries, read-modify-writes, stack and JSR/RTS
+    private static final String ALU_PROGRAM =
+            "A2 00 A0 20 A9 F8 85 00 A9 02 85 01"  // 8000: LDX #0, LDY #$20, ($00) = $02F8
+            + " 8A 7D F0 03 9D F0 02 2A 91 00"     // 800C: TXA, ADC $03F0,X, STA $02F0,X, ROL A, STA ($00),Y
+            + " B1 00 FD F0 02 1E F0 02 7E F0 02"  // 8016: LDA ($00),Y, SBC $02F0,X, ASL $02F0,X, ROR $02F0,X
+            + " E6 10 CE 20 00 45 10 48 68 85 11"  // 8021: INC $10, DEC $0020, EOR $10, PHA, PLA, STA $11
+            + " 20 40 80 E8 88 D0 D9"              // 802C: JSR $8040, INX, DEY, BNE $800C
+            + " 4C 33 80";                         // 8033: JMP $8033
+    private static final String ALU_SUBROUTINE =
+            "0A 6A C9 80 B0 02 09 01 2C 10 00 60"; // 8040: ASL A, ROR A, CMP #$80, BCS +2, ORA #1, BIT $0010, RTS
+    private static final int ALU_END = 0x8033;
+
+    // Every addressing mode of the official set: zp,X/zp,Y/(zp,X) round trips, memory
+    // shifts and rotates, PHP/CLV/PLP, BRK/RTI with the pushed status, JMP ($02FF) page wrap
+    private static final String MODES_PROGRAM =
+            "A2 05 A0 03 A9 80 85 30 A9 02 85 31"            // 8000: LDX #5, LDY #3, ($30) = $0280
+            + " 98 95 40 B5 40 96 50 B6 50 94 60 B4 60"      // 800C: TYA, STA/LDA $40,X, STX/LDX $50,Y, STY/LDY $60,X
+            + " 81 2B A1 2B 65 40 E5 41 25 45 05 46"         // 8019: STA/LDA ($2B,X), ADC $40, SBC $41, AND $45, ORA $46
+            + " 55 40 D5 40 C5 45 E4 50 C4 60"               // 8025: EOR $40,X, CMP $40,X, CMP $45, CPX $50, CPY $60
+            + " EC 80 02 CC 80 02 24 40 08 B8 28"            // 802F: CPX $0280, CPY $0280, BIT $40, PHP, CLV, PLP
+            + " F6 40 D6 41 FE 00 03 DE 00 03"               // 803A: INC $40,X, DEC $41,X, INC $0300,X, DEC $0300,X
+            + " 46 45 26 46 66 47 56 40 36 40 76 40"         // 8044: LSR/ROL/ROR zp, LSR/ROL/ROR zp,X
+            + " 0E 00 03 4E 00 03 2E 00 03 6E 00 03"         // 8050: ASL/LSR/ROL/ROR $0300
+            + " 5E 00 03 3E 00 03 06 47 16 47 EE 00 03 C6 45" // 805C: LSR/ROL $0300,X, ASL $47, ASL $47,X, INC $0300, DEC $45
+            + " 00 EA 88 D0 9C"                              // 806B: BRK, DEY, BNE $800C
+            + " A9 90 8D FF 02 A9 80 8D 00 02 6C FF 02";     // 8070: ($02FF) = $90, ($0200) = $80, JMP ($02FF)
+    private static final String BRK_HANDLER =
+            "E6 70 48 8A 48 BA BD 03 01 85 71 68 AA 68 40";  // 8080: INC $70, save A/X, pushed P -> $71, RTI
+    private static final String MODES_END_LOOP = "4C 90 80";   // 8090: JMP $8090
+    private static final int MODES_END = 0x8090;
+
+    // The stable unofficial opcodes through every addressing mode they have, three times over
+    private static final String UNOFFICIAL_PROGRAM =
+            "A0 03 A9 80 85 30 A9 02 85 31"                            // 8000: LDY #3, ($30) = $0280
+            + " A2 35 A9 F3 87 40 97 41 8F 00 03 83 00"                // 800A: LDX #$35, LDA #$F3, SAX zp/zp,Y/abs/(zp,X)
+            + " A7 40 B7 41 AF 00 03 B3 30 A3 00 BF FE 02"             // 8017: LAX zp/zp,Y/abs/(zp),Y/(zp,X)/abs,Y
+            + " A2 07 A9 C4 07 40 27 40 47 41 67 40 C7 40 E7 40"       // 8025: LDX #7, LDA #$C4, SLO RLA SRE RRA DCP ISC zp
+            + " 17 40 37 40 57 40 77 40 D7 40 F7 40"                   // 8035: ... zp,X
+            + " 0F 00 03 2F 00 03 4F 00 03 6F 00 03 CF 00 03 EF 00 03" // 8041: ... abs
+            + " 1F FE 02 3F FE 02 5F FE 02 7F FE 02 DF FE 02 FF FE 02" // 8053: ... abs,X
+            + " 1B FE 02 3B FE 02 5B FE 02 7B FE 02 DB FE 02 FB FE 02" // 8065: ... abs,Y
+            + " 03 29 23 29 43 29 63 29 C3 29 E3 29"                   // 8077: ... ($29,X)
+            + " 13 30 33 30 53 30 73 30 D3 30 F3 30"                   // 8083: ... ($30),Y
+            + " 0B 81 2B 0F 4B 3F 6B C3 38 6B 7F A2 0F CB 02 EB 10"    // 808F: ANC ANC ALR ARR SEC ARR LDX #$0F AXS SBC #
+            + " 1A 80 55 04 40 14 40 0C 00 03 1C FE 02"                // 80A0: NOP, NOP #/zp/zp,X/abs/abs,X
+            + " 88 F0 03 4C 0A 80 4C B3 80";                           // 80AD: DEY, BEQ +3, JMP $800A; 80B3: JMP $80B3
+    private static final int UNOFFICIAL_END = 0x80B3;
+
+    // One unofficial operation after another, each result stored to $5x for checking
+    private static final String UNOFFICIAL_RESULTS_PROGRAM =
+            "A9 10 85 41 A9 0F 85 42 A9 81 85 43 A9 03 85 44" // 8000: $41-$44 = $10 $0F $81 $03
+            + " A9 F3 A2 35 87 40 A7 40 86 50"                // 8010: SAX $40 ($31), LAX $40, STX $50
+            + " A9 0F C7 41 08 68 85 51"                      // 801A: DCP $41 ($0F = A: Z and C), PHP, PLA, STA $51
+            + " A9 20 38 E7 42 85 52"                         // 8022: ISC $42 ($10; A = $20 - $10), STA $52
+            + " A9 01 07 43 85 53"                            // 8029: SLO $43 ($02; A = $01 | $02), STA $53
+            + " 18 A9 10 67 44 85 54"                         // 802F: RRA $44 ($01, C; A = $10 + $01 + 1), STA $54
+            + " A9 FF 38 6B C3 85 55"                         // 8036: ARR #$C3 with C (A = $E1), STA $55
+            + " A2 0F CB 02 86 56"                            // 803D: AXS #$02 (X = ($E1 & $0F) - 2), STX $56
+            + " 4C 43 80";                                    // 8043: JMP $8043
+    private static final int UNOFFICIAL_RESULTS_END = 0x8043;
+
+    // Spins in a loop while the test raises NMI and IRQ; the IRQ handler acknowledges via $4100
+    private static final String INTERRUPT_PROGRAM =
+            "A9 00 85 10 85 11 58 4C 07 80";       // 8000: LDA #0, STA $10, STA $11, CLI, JMP $8007
+    private static final String NMI_HANDLER =
+            "E6 10 48 AD 10 00 8D 00 03 68 40";    // 8010: INC $10, PHA, LDA $0010, STA $0300, PLA, RTI
+    private static final String IRQ_HANDLER =
+            "E6 11 8D 00 41 40";                   // 8020: INC $11, STA $4100, RTI
+    private static final int INTERRUPT_LOOP = 0x8007;
+
+    public static void main(String[] args) {
+        try {
+            System.out.println("🧪 Testing CPU core conformance (fast vs cycle-stepped)...");
+            testInstructionByInstruction("ALU program", aluRom(), ALU_END);
+            Machine modes = testInstructionByInstruction("addressing-mode program", modesRom(), MODES_END);
+            check(modes.memory.read(0x70) == 3 && (modes.memory.read(0x71) & 0x30) == 0x30,
+                    "BRK taken 3 times with B and U pushed");
+            testInstructionByInstruction("unofficial-opcode program", rom(UNOFFICIAL_PROGRAM, 0x8000), UNOFFICIAL_END);
+            testUnofficialResults();
+            testRunUntil("ALU program", aluRom(), ALU_END);
+            testRunUntil("addressing-mode program", modesRom(), MODES_END);
+            testRunUntil("unofficial-opcode program", rom(UNOFFICIAL_PROGRAM, 0x8000), UNOFFICIAL_END);
+            testInterrupts();
+            testBusOrder();
+            testOamDma("A9 02 8D 14 40 4C 05 80", 0x8005, 2 + 4 + 514);          // STA writes on cycle 5
+            testOamDma("A5 00 A9 02 8D 14 40 4C 07 80", 0x8007, 3 + 2 + 4 + 513); // STA writes on cycle 8
+            testResetClearsInterrupts();
+            testFusedStoreCycle();
+            testNmiInsideBlock();
+            testUnofficialIndirectInCompiledBlock();
+            testFlagsAtBlockExit();
+            testHistoryInBlocks();
+            testCrashBundle(CpuCore.FAST);
+            testCrashBundle(CpuCore.CYCLE_STEPPED);
+
+            if (failures == 0) {
+                System.out.println("✅ All CPU core conformance checks passed");
+            } else {
+                System.out.println("❌ " + failures + " conformance check(s) failed");
+            }
+        } catch (Exception e) {
+            System.out.println("❌ Test failed: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    // clock() on both cores: every instruction must end in the same state after the same cycles
+    private static Machine testInstructionByInstruction(String name, byte[] rom, int end) {
+        System.out.println("🔍 Stepping the " + name + " one instruction at a time...");
+        Machine fast = new Machine(CpuCore.FAST, rom);
+        Machine stepped = new Machine(CpuCore.CYCLE_STEPPED, rom);
+        int instructions = 0;
+        while (fast.cpu.PC != end && instructions < 10_000) {
+            int fastCycles = fast.cpu.clock();
+            int steppedCycles = stepped.cpu.clock();
+            instructions++;
+            if (fastCycles != steppedCycles || !fast.registers().equals(stepped.registers())) {
+                fail("instruction " + instructions + ": fast " + fast.registers() + " in " + fastCycles
+                        + " cycles, cycle-stepped " + stepped.registers() + " in " + steppedCycles);
+                return fast;
+            }
+        }
+        check(fast.cpu.PC == end, name + " reaches its end loop");
+        check(fast.ramMatches(stepped), name + " leaves the same RAM");
+        System.out.println("📊 " + instructions + " instructions, " + fast.cpu.getCycleCount() + " cycles");
+        return fast;
+    }
+
+    private static void testUnofficialResults() {
+        Machine machine = testInstructionByInstruction("unofficial results program",
+                rom(UNOFFICIAL_RESULTS_PROGRAM, 0x8000), UNOFFICIAL_RESULTS_END);
+        Memory memory = machine.memory;
+        check(memory.read(0x40) == 0x31 && memory.read(0x50) == 0x31, "SAX stores A & X, LAX loads A and X");
+        check(memory.read(0x41) == 0x0F && (memory.read(0x51) & 0x03) == 0x03, "DCP decrements and compares");
+        check(memory.read(0x42) == 0x10 && memory.read(0x52) == 0x10, "ISC increments and subtracts");
+        check(memory.read(0x43) == 0x02 && memory.read(0x53) == 0x03, "SLO shifts and ORs");
+        check(memory.read(0x44) == 0x01 && memory.read(0x54) == 0x12, "RRA rotates and adds with the rotated-out carry");
+        check(memory.read(0x55) == 0xE1, "ARR ANDs and rotates in the carry");
+        check(memory.read(0x56) == 0xFF, "AXS subtracts from A & X");
+    }
+
+    // runUntil() on both cores (blocks and idle skipping on the fast one)
+    private static void testRunUntil(String name, byte[] rom, int end) {
+        System.out.println("🔍 Running the " + name + " with runUntil...");
+        Machine fast = new Machine(CpuCore.FAST, rom);
+        Machine stepped = new Machine(CpuCore.CYCLE_STEPPED, rom);
+        fast.cpu.runUntil(20_000);
+        stepped.cpu.runUntil(20_000);
+        stepped.finishInstruction(end);
+        check(fast.cpu.PC == end && stepped.cpu.PC == end, "both cores reach the end loop");
+        check(fast.registers().equals(stepped.registers()), "registers match: " + fast.registers()
+                + " / " + stepped.registers());
+        check(fast.ramMatches(stepped), "RAM matches");
+    }
+
+    // The cycle-stepped core takes an interrupt one instruction later when it arrives on an
+    // instruction's last cycle, so the cores are compared once the handlers have returned
+    private static void testInterrupts() {
+        System.out.println("🔍 Raising NMI and IRQ while the program spins...");
+        Machine[] machines = {
+                new Machine(CpuCore.FAST, interruptRom()),
+                new Machine(CpuCore.CYCLE_STEPPED, interruptRom())
+        };
+        for (Machine machine : machines) {
+            CPU6502 cpu = machine.cpu;
+            for (int round = 0; round < 5; round++) {
+                machine.clockUntil(cpu.getCycleCount() + 100);
+                cpu.requestNMI();
+                machine.clockUntil(cpu.getCycleCount() + 100);
+                cpu.setIrqLine(CPU6502.IRQ_MAPPER, true);
+                machine.clockUntil(cpu.getCycleCount() + 100);
+            }
+        }
+        Machine fast = machines[0];
+        Machine stepped = machines[1];
+        check(fast.memory.read(0x10) == 5 && fast.memory.read(0x11) == 5,
+                "fast core took 5 NMIs and 5 IRQs (got " + fast.memory.read(0x10) + ", " + fast.memory.read(0x11) + ")");
+        check(stepped.cpu.PC == INTERRUPT_LOOP && fast.cpu.PC == INTERRUPT_LOOP, "both cores back in the loop");
+        check(fast.registers().equals(stepped.registers()), "registers match: " + fast.registers()
+                + " / " + stepped.registers());
+        check(fast.ramMatches(stepped), "RAM matches");
+        check(!fast.cpu.isIrqAsserted() && !stepped.cpu.isIrqAsserted(), "IRQ acknowledged");
+    }
+
+    // Cycle-stepped only: ASL $4000,X makes the 6502's four data accesses on cycles 3-6
+    private static void testBusOrder() {
+        System.out.println("🔍 Checking the bus accesses of a read-modify-write...");
+        byte[] rom = rom("A2 00 1E 00 40 4C 05 80", 0x8000); // LDX #0, ASL $4000,X, JMP *
+        Machine stepped = new Machine(CpuCore.CYCLE_STEPPED, rom);
+        stepped.cpu.clock(); // LDX
+        long start = stepped.cpu.getCycleCount();
+        stepped.log.clear();
+        stepped.logStart = start;
+        stepped.cpu.clock(); // ASL
+        String expected = "[R@3, R@4, W41@5, W82@6]";
+        check(stepped.log.toString().equals(expected), "ASL abs,X accesses " + stepped.log + ", expected " + expected);
+    }
+
+    // LDA #$02, STA $4014: the stall is 513 cycles, 514 when the write lands on an odd cycle.
+    // Both cores, through clock() and through runUntil with exact stops (where LDA/STA run
+    // fused and the stall must end the block so the run stops on the JMP)
+    private static void testOamDma(String program, int end, int expected) {
+        System.out.println("🔍 Sprite DMA: " + program + "...");
+        for (CpuCore core : CpuCore.values()) {
+            for (boolean runUntil : new boolean[] {false, true}) {
+                Machine machine = new Machine(core, rom(program, 0x8000));
+                machine.memory.write(0x0200, 0x5A);
+                if (runUntil) {
+                    machine.cpu.setExactStops(true);
+                    machine.cpu.runUntil(expected);
+                } else {
+                    while (machine.cpu.PC != end && machine.cpu.getCycleCount() < 1000) {
+                        machine.cpu.clock();
+                    }
+                }
+                check(machine.cpu.PC == end && machine.cpu.getCycleCount() == expected && machine.oam[0] == 0x5A,
+                        core + (runUntil ? " runUntil" : " clock") + ": JMP reached on cycle "
+                                + machine.cpu.getCycleCount() + ", expected " + expected);
+            }
+        }
+    }
+
+    // A reset drops a latched NMI, and a new cartridge board releases the old one's IRQ
+    private static void testResetClearsInterrupts() {
+        System.out.println("🔍 Resetting with interrupts pending...");
+        Machine machine = new Machine(CpuCore.FAST, rom("4C 00 80", 0x8000));
+        machine.cpu.setNmiLine(true);
+        machine.cpu.setIrqLine(CPU6502.IRQ_MAPPER, true);
+        machine.cpu.reset();
+        check(!machine.cpu.isNmiPending() && machine.cpu.isIrqAsserted(), "reset clears the NMI latch, not the IRQ line");
+        machine.cpu.setNmiLine(true);
+        check(machine.cpu.isNmiPending(), "NMI line low again after reset: the next rising edge latches");
+        Mapper.create(0, new byte[0x8000], null, machine.cpu, machine.memory, new Memory(0x400));
+        check(!machine.cpu.isIrqAsserted(), "a new mapper releases IRQ_MAPPER");
+    }
+
+    // Fast core: a fused LDA/STA dates the store from the STA's own start, as clock() does
+    private static void testFusedStoreCycle() {
+        System.out.println("🔍 Dating the store of a fused LDA/STA...");
+        String[] logs = new String[2];
+        for (int run = 0; run < 2; run++) {
+            Machine fast = new Machine(CpuCore.FAST, rom("A9 41 8D 00 40 4C 05 80", 0x8000));
+            if (run == 0) {
+                fast.cpu.clock();
+                fast.cpu.clock();
+            } else {
+                fast.cpu.runUntil(6);
+            }
+            logs[run] = fast.log.toString();
+        }
+        check(logs[0].equals("[W41@2]") && logs[1].equals(logs[0]),
+                "STA $4000 written on cycle 2: clock " + logs[0] + ", runUntil " + logs[1]);
+    }
+
+    // Fast core: an NMI raised by a store inside a block is taken right after that store,
+    // as with clock(), not at the end of the block. The handler saves X
+    private static void testNmiInsideBlock() {
+        System.out.println("🔍 Raising NMI from inside a block...");
+        byte[] rom = rom("A2 20 A9 80 8D 00 42 E8 E8 E8 4C 0A 80", 0x8000); // LDX #$20, STA $4200, INX x3, JMP *
+        load(rom, 0x8010, "86 10 40");                                        // 8010: STX $10, RTI
+        setVector(rom, 0xFFFA, 0x8010);
+        Machine clocked = new Machine(CpuCore.FAST, rom);
+        clocked.clockUntil(100);
+        Machine run = new Machine(CpuCore.FAST, rom);
+        run.runUntil(100);
+        check(clocked.memory.read(0x10) == 0x20 && run.memory.read(0x10) == 0x20,
+                "NMI taken before the INX (X saved: clock " + clocked.memory.read(0x10)
+                        + ", runUntil " + run.memory.read(0x10) + ")");
+    }
+
+    // Fast core with the ROM precompiled: the unofficial (zp),Y opcodes run through the
+    // interpreter fallback inside compiled code and must still be dated and end the block
+    // like official ones. LAX ($00),Y reads $4000, DCP ($00),Y writes $4200 (NMI)
+    private static void testUnofficialIndirectInCompiledBlock() throws Exception {
+        System.out.println("🔍 Unofficial indirect register accesses in a compiled block...");
+        byte[] rom = rom("A9 00 85 00 A9 40 85 01 A0 00 B3 00"  // 8000: ($00) = $4000, LDY #0, LAX ($00),Y
+                + " A9 42 85 01 A2 20 D3 00"                    // 800C: ($00) = $4200, LDX #$20, DCP ($00),Y
+                + " E8 E8 E8 4C 17 80", 0x8000);                // 8014: INX x3, JMP *
+        load(rom, 0x8020, "86 10 40");                           // 8020: STX $10, RTI
+        setVector(rom, 0xFFFA, 0x8020);
+
+        Machine clocked = new Machine(CpuCore.FAST, rom);
+        clocked.clockUntil(100);
+        Machine compiled = precompiled(rom);
+        compiled.runUntil(100);
+        check(clocked.log.toString().equals("[R@12]") && compiled.log.equals(clocked.log),
+                "LAX ($00),Y read dated on cycle 12: clock " + clocked.log + ", compiled " + compiled.log);
+        check(clocked.memory.read(0x10) == 0x20 && compiled.memory.read(0x10) == 0x20,
+                "NMI from DCP ($00),Y taken before the INX (X saved: clock " + clocked.memory.read(0x10)
+                        + ", compiled " + compiled.memory.read(0x10) + ")");
+    }
+
+    // Fast core with the ROM precompiled: N/Z of an INX that the next LDA overwrites must
+    // still reach the CPU when the STA between them raises an NMI and ends the block
+    private static void testFlagsAtBlockExit() throws Exception {
+        System.out.println("🔍 Flags pushed by an NMI that ends a compiled block...");
+        byte[] rom = rom("A2 FF E8 8D 00 42 A9 01 4C 08 80", 0x8000); // LDX #$FF, INX (Z), STA $4200, LDA #1, JMP *
+        load(rom, 0x8020, "68 85 11 48 40");                            // 8020: PLA, STA $11, PHA, RTI
+        setVector(rom, 0xFFFA, 0x8020);
+        Machine clocked = new Machine(CpuCore.FAST, rom);
+        clocked.clockUntil(100);
+        Machine compiled = precompiled(rom);
+        compiled.runUntil(100);
+        int flags = CPU6502.FLAG_NEGATIVE | CPU6502.FLAG_ZERO;
+        check((clocked.memory.read(0x11) & flags) == CPU6502.FLAG_ZERO
+                        && (compiled.memory.read(0x11) & flags) == CPU6502.FLAG_ZERO,
+                String.format("pushed P has Z from the INX: clock %02X, compiled %02X",
+                        clocked.memory.read(0x11), compiled.memory.read(0x11)));
+    }
+
+    // Fast core: decoded blocks (with fused LDA/STA and DEY/BNE) and compiled blocks leave
+    // one history entry per instruction, the same as clock(). Compiled entries may only
+    // differ in N and Z, and then must be marked approximate
+    private static void testHistoryInBlocks() throws Exception {
+        System.out.println("🔍 Execution history from decoded and compiled blocks...");
+        byte[] rom = rom("A9 42 85 10 A2 07 E8 A0 03" // 8000: LDA #$42, STA $10, LDX #7, INX, LDY #3
+                + " 88 D0 FD 4C 0C 80", 0x8000);      // 8009: DEY, BNE $8009; 800C: JMP *
+        Machine clocked = new Machine(CpuCore.FAST, rom);
+        clocked.clockUntil(60);
+        Machine decoded = new Machine(CpuCore.FAST, rom);
+        Machine compiled = precompiled(rom);
+        for (Machine machine : new Machine[] {decoded, compiled}) {
+            machine.cpu.setExactStops(true);
+            machine.cpu.setIdleSkipEnabled(false); // skipped JMP * passes leave no entries
+            machine.runUntil(60);
+        }
+
+        ExecutionHistory expected = clocked.cpu.getHistory();
+        for (Machine machine : new Machine[] {decoded, compiled}) {
+            ExecutionHistory history = machine.cpu.getHistory();
+            String name = machine == compiled ? "compiled" : "decoded";
+            int approximate = 0;
+            int differences = 0;
+            for (int age = 0; age < Math.min(history.size(), expected.size()); age++) {
+                long nz = CPU6502.FLAG_NEGATIVE | CPU6502.FLAG_ZERO;
+                long mask = history.isApproximate(age) ? ~nz : ~0L;
+                approximate += history.isApproximate(age) ? 1 : 0;
+                if ((history.get(age) & mask) != (expected.get(age) & mask)) {
+                    differences++;
+                    System.out.printf("⚠️ %s entry %d: %016X, clock %016X\n", name, age,
+                            history.get(age), expected.get(age));
+                }
+            }
+            check(history.size() == expected.size() && differences == 0,
+                    name + ": " + history.size() + " entries as clock() (" + expected.size() + "), "
+                            + differences + " differ, " + approximate + " approximate");
+            check(machine == compiled ? approximate > 0 : approximate == 0,
+                    name + ": " + approximate + " entries with dropped N/Z updates marked");
+        }
+    }
+
+    // A fast-core machine running the ROM's StaticRecompiler classes, as Main does with a block cache
+    private static Machine precompiled(byte[] rom) throws Exception {
+        Path cache = Files.createTempDirectory("blocks");
+        try {
+            StaticRecompiler.compile(rom, cache.toFile());
+            PrecompiledBlocks blocks = StaticRecompiler.load(rom, cache.toFile());
+            if (blocks == null || blocks.size() == 0) {
+                throw new IllegalStateException("ROM did not precompile");
+            }
+            Machine machine = new Machine(CpuCore.FAST, rom);
+            machine.cpu.setPrecompiledBlocks(blocks);
+            return machine;
+        } finally {
+            try (Stream<Path> files = Files.walk(cache)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    // LDA #$42, LDX #0, then the JAM opcode $02: the CPU halts and writes its crash bundle
+    private static void testCrashBundle(CpuCore core) throws Exception {
+        System.out.println("🔍 Halting the " + core + " core on an illegal opcode...");
+        Path bundle = Files.createTempFile("crash", ".bin");
+        try {
+            Machine machine = new Machine(core, rom("A9 42 A2 00 02", 0x8000));
+            machine.cpu.setCrashBundlePath(bundle);
+            machine.cpu.addCrashSection("TEST", () -> new byte[] {1, 2, 3});
+            while (!machine.cpu.halted && machine.cpu.getCycleCount() < 100) {
+                machine.cpu.clock();
+            }
+            ExecutionHistory history = machine.cpu.getHistory();
+            check(machine.cpu.halted && history.size() == 3, "halted after 3 instructions");
+            check(ExecutionHistory.pc(history.get(0)) == 0x8004 && ExecutionHistory.opcode(history.get(0)) == 0x02
+                            && ExecutionHistory.pc(history.get(1)) == 0x8002 && (history.get(1) >>> 32 & 0xFF) == 0x42,
+                    "history holds the illegal opcode and the registers before it");
+            check((history.get(1) & 0xFF) == 0x24 && (history.get(0) & 0xFF) == (0x24 | CPU6502.FLAG_ZERO),
+                    "history P composed from the lazy flags: " + String.format("%02X %02X",
+                            history.get(1) & 0xFF, history.get(0) & 0xFF));
+
+            ByteBuffer file = ByteBuffer.wrap(Files.readAllBytes(bundle));
+            byte[] magic = new byte[8];
+            file.get(magic).getInt();
+            Map<String, byte[]> sections = new LinkedHashMap<>();
+            while (file.hasRemaining()) {
+                byte[] tag = new byte[4];
+                file.get(tag);
+                byte[] data = new byte[file.getInt()];
+                file.get(data);
+                sections.put(new String(tag, StandardCharsets.US_ASCII), data);
+            }
+            check(new String(magic, StandardCharsets.US_ASCII).equals("JNESCRSH")
+                            && sections.keySet().toString().equals("[CPU , HIST, TEXT, MEM , TEST]"),
+                    "bundle sections " + sections.keySet());
+            check(sections.get("HIST").length == 3 * 8 && sections.get("MEM ").length == 0x10000
+                            && (sections.get("MEM ")[0x8000] & 0xFF) == 0xA9 && sections.get("TEST").length == 3,
+                    "bundle holds the history and memory");
+        } finally {
+            Files.deleteIfExists(bundle);
+        }
+    }
+
+    private static byte[] aluRom() {
+        byte[] rom = rom(ALU_PROGRAM, 0x8000);
+        load(rom, 0x8040, ALU_SUBROUTINE);
+        return rom;
+    }
+
+    private static byte[] modesRom() {
+        byte[] rom = rom(MODES_PROGRAM, 0x8000);
+        load(rom, 0x8080, BRK_HANDLER);
+        load(rom, 0x8090, MODES_END_LOOP);
+        setVector(rom, 0xFFFE, 0x8080);
+        return rom;
+    }
+
+    private static byte[] interruptRom() {
+        byte[] rom = rom(INTERRUPT_PROGRAM, 0x8000);
+        load(rom, 0x8010, NMI_HANDLER);
+        load(rom, 0x8020, IRQ_HANDLER);
+        setVector(rom, 0xFFFA, 0x8010);
+        setVector(rom, 0xFFFE, 0x8020);
+        return rom;
+    }
+
+    // 32KB PRG at $8000 with every vector pointing at `reset`
+    private static byte[] rom(String program, int reset) {
+        byte[] rom = new byte[0x8000];
+        load(rom, 0x8000, program);
+        setVector(rom, 0xFFFA, reset);
+        setVector(rom, 0xFFFC, reset);
+        setVector(rom, 0xFFFE, reset);
+        return rom;
+    }
+
+    private static void load(byte[] rom, int address, String hex) {
+        String[] bytes = hex.trim().split("\\s+");
+        for (int i = 0; i < bytes.length; i++) {
+            rom[address - 0x8000 + i] = (byte) Integer.parseInt(bytes[i], 16);
+        }
+    }
+
+    private static void setVector(byte[] rom, int vector, int target) {
+        rom[vector - 0x8000] = (byte) target;
+        rom[vector - 0x8000 + 1] = (byte) (target >> 8);
+    }
+
+    private static void check(boolean condition, String what) {
+        if (condition) {
+            System.out.println("✅ " + what);
+        } else {
+            fail(what);
+        }
+    }
+
+    private static void fail(String what) {
+        failures++;
+        System.out.println("❌ " + what);
+    }
+
+    // 2KB RAM, the ROM at $8000, sprite DMA into `oam` at $4014 and three registers:
+    // $4000 logs its accesses (reads return $41), a write to $4100 releases the mapper
+    // IRQ and a write to $4200 requests an NMI
+    private static class Machine {
+        final Memory memory = new Memory();
+        final CPU6502 cpu;
+        final List<String> log = new ArrayList<>();
+        final byte[] oam = new byte[256];
+        long logStart;
+
+        Machine(CpuCore core, byte[] rom) {
+            memory.mapRange(0x0000, 0x1FFF, new RamPage(0x800));
+            memory.mapRange(0x8000, 0xFFFF, new RomPage(rom, 0x8000));
+            cpu = new CPU6502(memory, null, core);
+            cpu.setRecompilerEnabled(false);
+            memory.registerIo(0x4000, 0x4000, 0x00, new IoHandler() {
+                @Override
+                public int read(int register) {
+                    log.add("R@" + (cpu.getInstructionCycle() - logStart));
+                    return 0x41;
+                }
+
+                @Override
+                public void write(int register, int value) {
+                    log.add("W" + Integer.toHexString(value) + "@" + (cpu.getInstructionCycle() - logStart));
+                }
+            });
+            memory.registerIo(0x4014, 0x4014, 0x00, new OamDma(cpu, memory, page -> System.arraycopy(page, 0, oam, 0, 256)));
+            memory.registerIo(0x4200, 0x4200, 0x00, new IoHandler() {
+                @Override
+                public int read(int register) {
+                    return 0;
+                }
+
+                @Override
+                public void write(int register, int value) {
+                    cpu.requestNMI();
+                }
+            });
+            memory.registerIo(0x4100, 0x4100, 0x00, new IoHandler() {
+                @Override
+                public int read(int register) {
+                    return 0;
+                }
+
+                @Override
+                public void write(int register, int value) {
+                    cpu.setIrqLine(CPU6502.IRQ_MAPPER, false);
+                }
+            });
+            cpu.reset();
+        }
+
+        String registers() {
+            return String.format("PC=%04X A=%02X X=%02X Y=%02X SP=%02X P=%02X",
+                    cpu.PC, cpu.A, cpu.X, cpu.Y, cpu.SP, cpu.getStatus());
+        }
+
+        void clockUntil(long cycle) {
+            while (cpu.getCycleCount() < cycle) {
+                cpu.clock();
+            }
+        }
+
+        // runUntil returns early when an NMI comes up, like Main's frame loop
+        void runUntil(long cycle) {
+            while (cpu.getCycleCount() < cycle) {
+                cpu.runUntil(cycle);
+            }
+        }
+
+        // After runUntil the cycle-stepped core may stop inside an instruction
+        void finishInstruction(int end) {
+            cpu.clock();
+            while (cpu.PC != end) {
+                cpu.clock();
+            }
+        }
+
+        boolean ramMatches(Machine other) {
+            for (int address = 0; address < 0x800; address++) {
+                if (memory.read(address) != other.memory.read(address)) {
+                    System.out.printf("⚠️ $%04X differs: %02X / %02X\n", address,
+                            memory.read(address), other.memory.read(address));
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
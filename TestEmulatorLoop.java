@@ -1,6 +1,46 @@
+import cpu6502.CPU6502;
+import cpu6502.Memory;
+import cpu6502.OamDma;
+import cpu6502.PrecompiledBlocks;
+import cpu6502.RamPage;
+import cpu6502.StaticRecompiler;
+import mapper.Mapper;
+import timing.Scheduler;
+
 import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.Stream;
 
 public class TestEmulatorLoop {
+    private static final int SYNC_FRAMES = 120;
+
+    // NROM program for the lockstep/catch-up comparison. Every other frame it polls $2002
+    // with LAX ($10),Y, counting passes into $07, and writes the count to the nametable
+    // and CHR RAM through $2006/$2007. Then it starts OAM DMA from $0200 and enables
+    // NMI. The NMI handler records X and the pushed P into $0200 and turns NMI off again,
+    // leaving VBlank set. So the STA $2000 after LDX #$FF; INX raises an NMI in the middle
+    // of its block, and P must carry the INX's Z even though the LDA #1 after it overwrites it.
+    private static final String SYNC_PROGRAM =
+            "78 D8 A2 FF 9A A9 02 85 10 A9 20 85 11"  // 8000: SEI, CLD, SP = $FF, ($10) = $2002
+            + " 2C 02 20 10 FB 2C 02 20 10 FB"         // 800D: two VBlanks
+            + " 2C 02 20 A0 00 84 07"                  // 8017: BIT $2002 (ack), LDY #0, STY $07
+            + " E6 07 B3 10 10 FA"                     // 801E: INC $07, LAX ($10),Y, BPL $801E
+            + " A9 20 8D 06 20 A5 08 8D 06 20 A5 07 8D 07 20"  // 8024: ($2000 + $08) = $07
+            + " A9 00 8D 06 20 A5 08 8D 06 20 A5 07 8D 07 20"  // 8033: ($0000 + $08) = $07
+            + " E6 08 A9 02 8D 14 40"                  // 8042: INC $08, OAM DMA from $0200
+            + " A9 80 8D 00 20 A5 04 F0 FC"            // 8049: NMI on, wait for the handler
+            + " A9 00 85 04"                           // 8052: clear the handler's flag
+            + " A9 80 A2 FF E8 8D 00 20 A9 01 E8 E8 86 06"     // 8056: LDX #$FF, INX, STA $2000 (NMI), LDA #1
+            + " A9 00 85 04 4C 17 80";                 // 8064: clear the flag again, JMP $8017
+    private static final String SYNC_NMI_HANDLER =
+            "48 98 48 86 09 A4 05"                     // 8070: save A, Y and X, Y = $05
+            + " 8A 99 00 02 C8"                        // 8077: $0200,Y = X
+            + " BA BD 03 01 99 00 02 C8 84 05"         // 807C: $0200,Y = pushed P, $05 = Y
+            + " A9 00 8D 00 20 E6 04"                  // 8086: NMI off, INC $04
+            + " A6 09 68 A8 68 40";                    // 808D: restore X, Y and A, RTI
     public static void main(String[] args) {
         try {
             System.out.println("🧪 Testing emulator loop and PPU VBLANK...");
@@ -63,9 +103,129 @@ public class TestEmulatorLoop {
                 System.out.println("❌ Frame generation failed");
             }
             
+
+            testCatchUpMatchesLockstep();
+
         } catch (Exception e) {
             System.out.println("❌ Test failed: " + e.getMessage());
             e.printStackTrace();
         }
     }
-}
\ No newline at end of file
+
+    // Main's two frame loops on the same program: the catch-up PPU (interpreted, and with
+    // the ROM precompiled) must leave the CPU, PPU and picture exactly as lockstep does
+    private static void testCatchUpMatchesLockstep() throws Exception {
+        System.out.println("\n🔄 Comparing catch-up PPU timing with lockstep...");
+        byte[] prg = syncPrg();
+        Console lockstep = new Console(prg, true);
+        Console catchUp = new Console(prg, false);
+        Console compiled = new Console(prg, false);
+        compiled.cpu.setPrecompiledBlocks(precompile(prg));
+
+        int mismatches = 0;
+        for (int frame = 0; frame < SYNC_FRAMES; frame++) {
+            lockstep.runFrame();
+            catchUp.runFrame();
+            compiled.runFrame();
+            String expected = lockstep.state();
+            for (Console console : new Console[] {catchUp, compiled}) {
+                String actual = console.state();
+                if (!actual.equals(expected) && mismatches++ < 3) {
+                    System.out.println("❌ Frame " + frame + (console == compiled ? " (precompiled)" : "")
+                            + "\n   lockstep " + expected + "\n   catch-up " + actual);
+                }
+            }
+        }
+        int nmis = lockstep.memory.read(0x05) / 2;
+        if (mismatches == 0 && nmis > SYNC_FRAMES / 2) {
+            System.out.println("✅ " + SYNC_FRAMES + " frames identical, " + nmis + " NMIs: " + lockstep.state());
+        } else {
+            System.out.println("❌ Catch-up differs from lockstep on " + mismatches + " frame(s), " + nmis + " NMIs");
+        }
+    }
+
+    private static byte[] syncPrg() {
+        byte[] prg = new byte[0x8000];
+        load(prg, 0x8000, SYNC_PROGRAM);
+        load(prg, 0x8070, SYNC_NMI_HANDLER);
+        load(prg, 0xFFFA, "70 80 00 80 00 80"); // NMI $8070, reset and IRQ $8000
+        return prg;
+    }
+
+    private static void load(byte[] prg, int address, String hex) {
+        String[] bytes = hex.trim().split("\\s+");
+        for (int i = 0; i < bytes.length; i++) {
+            prg[address - 0x8000 + i] = (byte) Integer.parseInt(bytes[i], 16);
+        }
+    }
+
+    // StaticRecompiler classes for the program, loaded from a scratch cache directory
+    private static PrecompiledBlocks precompile(byte[] prg) throws Exception {
+        Path cache = Files.createTempDirectory("blocks");
+        try {
+            StaticRecompiler.compile(prg, cache.toFile());
+            return StaticRecompiler.load(prg, cache.toFile());
+        } finally {
+            try (Stream<Path> files = Files.walk(cache)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    // CPU, PPU and NROM board wired as Main wires them, run by one of Main's frame loops
+    private static class Console {
+        final Memory memory = new Memory();
+        final Memory ppuMemory = new Memory(0x400);
+        final CPU6502 cpu = new CPU6502(memory);
+        final PPU ppu;
+        final Scheduler scheduler;
+        final boolean lockstep;
+
+        Console(byte[] prg, boolean lockstep) {
+            this.lockstep = lockstep;
+            memory.mapRange(0x0000, 0x1FFF, new RamPage(0x800));
+            ppuMemory.mapRange(0x2000, 0x2FFF, new RamPage(0x800));
+            Mapper.create(0, prg, null, cpu, memory, ppuMemory).reset();
+            cpu.setRecompilerEnabled(false); // background compiles would land at a different frame each run
+            ppu = new PPU(cpu, null, ppuMemory);
+            memory.registerIo(0x2000, 0x3FFF, 0x07, ppu);
+            memory.registerIo(0x4014, 0x4014, 0x00, new OamDma(cpu, memory, ppu::writeOamDma));
+            scheduler = new Scheduler(cpu.getCycleCount() * Scheduler.MASTER_PER_CPU_CYCLE);
+            if (!lockstep) {
+                ppu.attachScheduler(scheduler);
+                cpu.setExactStops(true);
+            }
+            cpu.reset();
+        }
+
+        // Main.runFrameLockstep / Main.runFrame
+        void runFrame() {
+            int frame = ppu.getFrameCounter();
+            while (ppu.getFrameCounter() == frame) {
+                if (lockstep) {
+                    int used = Math.max(1, cpu.clock());
+                    for (int p = 0; p < used * 3; p++) {
+                        ppu.clock();
+                    }
+                } else {
+                    long target = Scheduler.toCpuCycle(scheduler.nextEventTime());
+                    cpu.runUntil(target);
+                    scheduler.advanceTo((cpu.halted ? target : cpu.getCycleCount()) * Scheduler.MASTER_PER_CPU_CYCLE);
+                }
+            }
+        }
+
+        String state() {
+            if (!lockstep) {
+                ppu.advanceTo(cpu.getCycleCount() * Scheduler.MASTER_PER_CPU_CYCLE); // the PPU sleeps until observed
+            }
+            BufferedImage frame = ppu.generateFrameOptimized();
+            int[] pixels = frame.getRGB(0, 0, frame.getWidth(), frame.getHeight(), null, 0, frame.getWidth());
+            return String.format("PC=%04X A=%02X X=%02X Y=%02X SP=%02X P=%02X cycle=%d"
+                            + " frame=%d line=%d dot=%d oam=%08X vram=%08X picture=%08X",
+                    cpu.PC, cpu.A, cpu.X, cpu.Y, cpu.SP, cpu.getStatus(), cpu.getCycleCount(),
+                    ppu.getFrameCounter(), ppu.getScanline(), ppu.getCycle(), Arrays.hashCode(ppu.getOam()),
+                    Arrays.hashCode(ppuMemory.snapshot(0x0000, 0x3000)), Arrays.hashCode(pixels));
+        }
+    }
+}
@@ -0,0 +1,133 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import cpu6502.CPU6502;
+import cpu6502.Memory;
+import cpu6502.MemoryPage;
+import cpu6502.RamPage;
+import cpu6502.RomPage;
+
+public class CPUBenchmark {
+    private static final long WARMUP_NS = 2_000_000_000L;
+    private static final long MEASURE_NS = 5_000_000_000L;
+    private static final int BATCH = 100_000; // instructions between clock checks
+    private static final int SLICE_CYCLES = 114; // one scanline, as in Main's frame loop
+
+    public static void main(String[] args) throws IOException {
+        System.out.println("🚀 Starting CPU Instruction Throughput Benchmark...");
+
+        List<File> roms = new ArrayList<>();
+        if (args.length > 0) {
+            for (String arg : args) {
+                roms.add(new File(arg));
+            }
+        } else {
+            roms.addAll(findRoms(new File("ROMs")));
+            roms.add(new File("fibonacci.bin"));
+            roms.add(new File("test.bin"));
+            roms.add(new File("ROMs/branch_timing_tests/test_jsr_rts.nes"));
+        }
+
+        for (File rom : roms) {
+            if (!rom.exists()) {
+                System.out.println("⚠️  Skipping missing ROM: " + rom.getPath());
+                continue;
+            }
+            runBenchmark(rom);
+        }
+
+        System.out.println("✅ Benchmark completed!");
+    }
+
+    private static List<File> findRoms(File dir) {
+        List<File> result = new ArrayList<>();
+        File[] files = dir.listFiles();
+        if (files == null) return result;
+        Arrays.sort(files);
+        for (File file : files) {
+            if (file.isDirectory()) {
+                result.addAll(findRoms(file));
+            } else if (file.getName().toLowerCase().endsWith(".nes")) {
+                result.add(file);
+            }
+        }
+        return result;
+    }
+
+    private static byte[] loadPrg(File rom) throws IOException {
+        byte[] data = Files.readAllBytes(rom.toPath());
+        boolean hasHeader = data.length >= 16 && data[0] == 'N' && data[1] == 'E'
+                && data[2] == 'S' && data[3] == 0x1A;
+        if (hasHeader) {
+            return new INESFile(rom.getPath()).prgRom;
+        }
+        // Headerless image: treat it as raw PRG mapped at $8000
+        return Arrays.copyOfRange(data, 0, Math.min(data.length, 0x8000));
+    }
+
+    private static CPU6502 createCpu(byte[] prgRom) {
+        Memory memory = new Memory();
+        MemoryPage ram = new RamPage(0x800); // 2KB RAM
+        memory.mapRange(0x0000, 0x1FFF, ram);
+        memory.mapRange(0x8000, 0xFFFF, new RomPage(prgRom, 0x8000));
+        CPU6502 cpu = new CPU6502(memory);
+        cpu.reset();
+        return cpu;
+    }
+
+    private static void runBenchmark(File rom) throws IOException {
+        System.out.println("🎮 ROM: " + rom.getPath());
+        byte[] prgRom = loadPrg(rom);
+
+        // Per-instruction stepping through clock()
+        CPU6502 cpu = createCpu(prgRom);
+        long[] counts = runStepped(cpu, WARMUP_NS);
+        if (cpu.halted) {
+            System.out.printf("   ❌ CPU halted after %d instructions, no measurement\n", counts[0]);
+            return;
+        }
+        long start = System.nanoTime();
+        counts = runStepped(cpu, MEASURE_NS);
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("   📈 clock():     %.2f million instructions/second, %.2f MHz emulated%s\n",
+                counts[0] / (elapsed / 1_000.0), counts[1] / (elapsed / 1_000.0),
+                cpu.halted ? " (halted early)" : "");
+
+        // Batched execution through runCycles()
+        cpu = createCpu(prgRom);
+        runBatched(cpu, WARMUP_NS);
+        start = System.nanoTime();
+        long cycles = runBatched(cpu, MEASURE_NS);
+        elapsed = System.nanoTime() - start;
+        System.out.printf("   ⚡ runCycles(): %.2f MHz emulated%s\n", cycles / (elapsed / 1_000.0),
+                cpu.halted ? " (halted early)" : "");
+    }
+
+    // Returns {instructions, cycles}
+    private static long[] runStepped(CPU6502 cpu, long durationNs) {
+        long deadline = System.nanoTime() + durationNs;
+        long instructions = 0;
+        long cycles = 0;
+        while (!cpu.halted && System.nanoTime() < deadline) {
+            for (int i = 0; i < BATCH && !cpu.halted; i++) {
+                cycles += cpu.clock();
+                instructions++;
+            }
+        }
+        return new long[] {instructions, cycles};
+    }
+
+    private static long runBatched(CPU6502 cpu, long durationNs) {
+        long deadline = System.nanoTime() + durationNs;
+        long cycles = 0;
+        while (!cpu.halted && System.nanoTime() < deadline) {
+            for (int i = 0; i < BATCH / SLICE_CYCLES && !cpu.halted; i++) {
+                cycles += cpu.runCycles(SLICE_CYCLES);
+            }
+        }
+        return cycles;
+    }
+}
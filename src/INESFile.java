@@ -19,8 +19,8 @@ public class INESFile {
             throw new IOException("Invalid iNES file (missing NES header)");
         }
 
-        int prgRomUnits = data[4]; // in 16KB
-        int chrRomUnits = data[5]; // in 8KB
+        int prgRomUnits = data[4] & 0xFF; // in 16KB
+        int chrRomUnits = data[5] & 0xFF; // in 8KB
 
         this.prgSize = prgRomUnits * 16 * 1024;
         this.chrSize = chrRomUnits * 8 * 1024;
@@ -28,7 +28,7 @@ public class INESFile {
         int flags6 = data[6] & 0xFF;
         int flags7 = data[7] & 0xFF;
 
-        this.mapper = ((flags7 & 0xF0) << 4) | (flags6 >> 4);
+        this.mapper = (flags7 & 0xF0) | (flags6 >> 4);
         this.hasTrainer = (flags6 & 0x04) != 0;
 
         int prgStart = 16 + (hasTrainer ? 512 : 0);
@@ -1,4 +1,7 @@
 import cpu6502.*;
+import mapper.Mapper;
+import mapper.ScanlineCounter;
+import timing.Scheduler;
 
 import java.io.IOException;
 import java.awt.Color;
@@ -12,11 +15,29 @@ public class Main {
     private static PPU ppu;
     private static Memory memory;
     private static Memory ppuMemory;
+    private static Mapper mapper;
+    private static Scheduler scheduler;
     private static DisplayWindow displayWindow;
     private static boolean emulatorRunning = false;
+
+    // --lockstep: tick the PPU three dots after every CPU instruction instead of
+    // letting it catch up when observed; slower, kept to compare the two
+    private static boolean lockstep = false;
+
+    // --cycle: run the cycle-stepped CPU core for ROMs that depend on mid-instruction timing
+    private static CpuCore core = CpuCore.FAST;
     
     public static void main(String[] args) throws InterruptedException, IOException {
         System.out.println("🎮 Starting NES Emulator with PPU Display...");
+        for (String arg : args) {
+            if (arg.equals("--lockstep")) {
+                lockstep = true;
+                System.out.println("🔒 Lockstep PPU timing");
+            } else if (arg.equals("--cycle")) {
+                core = CpuCore.CYCLE_STEPPED;
+                System.out.println("🔬 Cycle-stepped CPU core");
+            }
+        }
         
         // Initialize emulator components
         initializeEmulator();
@@ -39,29 +60,42 @@ public class Main {
         System.out.println("🔧 Initializing emulator components...");
         
         memory = new Memory();
-        ppuMemory = new Memory();
+        ppuMemory = new Memory(0x400); // 1KB slots: CHR banks and nametables come in 1KB units
         MemoryPage vram = new RamPage(0x800); // 2KB VRAM
         ppuMemory.mapRange(0x2000, 0x2FFF, vram); // mirrors every 0x1000
 
         MemoryPage ram = new RamPage(0x800); // 2KB RAM
         memory.mapRange(0x0000, 0x1FFF, ram); // mirror into full $0000–$1FFF
 
-        // Set correct interrupt vectors manually
-        memory.write(0xFFFA, 0x00); memory.write(0xFFFB, 0x80); // NMI → $8000
-        memory.write(0xFFFC, 0x00); memory.write(0xFFFD, 0x80); // RESET → $8000
-        memory.write(0xFFFE, 0x00); memory.write(0xFFFF, 0x80); // IRQ/BRK → $8000
-        
-        // Create a simple infinite loop program at $8000
-        memory.write(0x8000, 0x4C); // JMP $8000
-        memory.write(0x8001, 0x00); // low byte
-        memory.write(0x8002, 0x80); // high byte
+        // Until a ROM is loaded, run a placeholder PRG: JMP $8000 with every vector at $8000
+        byte[] defaultPrg = new byte[0x4000];
+        defaultPrg[0x0000] = 0x4C; // JMP $8000
+        defaultPrg[0x0001] = 0x00; // low byte
+        defaultPrg[0x0002] = (byte) 0x80; // high byte
+        for (int vector = 0x3FFA; vector <= 0x3FFE; vector += 2) {
+            defaultPrg[vector] = 0x00;         // NMI, RESET, IRQ/BRK → $8000
+            defaultPrg[vector + 1] = (byte) 0x80;
+        }
+        cpu = new CPU6502(memory, Mode.DEBUG, core);
+        mapper = Mapper.create(0, defaultPrg, null, cpu, memory, ppuMemory);
+        mapper.reset();
 
         System.out.printf("🧠 memory[0xFFFC] = %02X\n", memory.read(0xFFFC));
         System.out.printf("🧠 memory[0xFFFD] = %02X\n", memory.read(0xFFFD));
         System.out.printf("📍 CPU Reset Vector = %04X\n", memory.readWord(0xFFFC));
 
-        cpu = new CPU6502(memory, Mode.DEBUG);
         ppu = new PPU(cpu, Mode.DEBUG, ppuMemory);
+        memory.registerIo(0x2000, 0x3FFF, 0x07, ppu); // 8 PPU registers mirrored through $3FFF
+        memory.registerIo(0x4014, 0x4014, 0x00, new OamDma(cpu, memory, page -> ppu.writeOamDma(page)));
+        cpu.addCrashSection("VRAM", () -> ppuMemory.snapshot(0x0000, 0x3000)); // pattern tables, nametables (no palette RAM is mapped)
+        cpu.addCrashSection("OAM ", () -> ppu.getOam().clone());
+
+        // Master timeline, kept in step with the CPU's cycle counter
+        scheduler = new Scheduler(cpu.getCycleCount() * Scheduler.MASTER_PER_CPU_CYCLE);
+        if (!lockstep) {
+            ppu.attachScheduler(scheduler);
+            cpu.setExactStops(true);
+        }
         
         // Create a simple test pattern in VRAM
         createTestPattern();
@@ -87,19 +121,23 @@ public class Main {
             // Load the .nes file
             INESFile inesFile = new INESFile(romPath);
             
-            // Load PRG ROM into CPU memory
-            if (inesFile.prgRom != null) {
-                System.out.println("📦 Loading PRG ROM (" + inesFile.prgSize + " bytes)");
-                loadPrgRom(inesFile.prgRom);
-            }
-            
-            // Load CHR ROM into PPU memory
-            if (inesFile.chrRom != null) {
-                System.out.println("🎨 Loading CHR ROM (" + inesFile.chrSize + " bytes)");
-                loadChrRom(inesFile.chrRom);
-                ppu.markTilePatternsDirty(); // Mark patterns for regeneration
+            // The mapper maps views of the PRG/CHR arrays into both page tables; nothing is copied
+            System.out.println("📦 Mapper " + inesFile.mapper + ", PRG ROM " + inesFile.prgSize
+                    + " bytes, CHR " + (inesFile.chrRom != null ? inesFile.chrSize + " bytes" : "RAM"));
+            mapper = Mapper.create(inesFile.mapper, inesFile.prgRom, inesFile.chrRom, cpu, memory, ppuMemory);
+            mapper.reset();
+            ppu.setScanlineCounter(mapper instanceof ScanlineCounter ? (ScanlineCounter) mapper : null);
+
+            // Use blocks compiled ahead of time by Precompile, if this ROM has any
+            PrecompiledBlocks precompiled = StaticRecompiler.load(inesFile.prgRom,
+                    new File(StaticRecompiler.DEFAULT_CACHE_DIR));
+            cpu.setPrecompiledBlocks(precompiled);
+            if (precompiled != null) {
+                System.out.println("⚡ Loaded " + precompiled.size() + " precompiled blocks");
             }
-            
+
+            initializeChr(inesFile.chrRom == null);
+
             // Reset the emulator with new ROM data
             resetEmulator();
             
@@ -117,45 +155,26 @@ public class Main {
         }
     }
     
-    private static void loadPrgRom(byte[] prgRom) {
-        // Load PRG ROM starting at $8000
-        int startAddress = 0x8000;
-        for (int i = 0; i < prgRom.length && (startAddress + i) < 0x10000; i++) {
-            memory.write(startAddress + i, prgRom[i] & 0xFF);
-        }
-        
-        // If PRG ROM is 16KB, mirror it to $C000-$FFFF
-        if (prgRom.length == 16 * 1024) {
-            for (int i = 0; i < prgRom.length; i++) {
-                memory.write(0xC000 + i, prgRom[i] & 0xFF);
-            }
-        }
-    }
-    
-    private static void loadChrRom(byte[] chrRom) {
-        if (chrRom != null && chrRom.length > 0) {
-            // Load CHR ROM into PPU memory starting at $0000
-            for (int i = 0; i < chrRom.length && i < 0x2000; i++) {
-                ppuMemory.write(i, chrRom[i] & 0xFF);
-            }
-        } else {
-            // If no CHR ROM, initialize with a default pattern
+    private static void initializeChr(boolean chrRam) {
+        if (chrRam) {
+            // No CHR ROM: fill the mapper's CHR RAM with a default pattern
             System.out.println("🎨 No CHR ROM data - initializing with default pattern...");
-            for (int i = 0; i < 0x2000; i++) {
-                ppuMemory.write(i, (i & 0xFF));
+            byte[] pattern = new byte[0x2000];
+            for (int i = 0; i < pattern.length; i++) {
+                pattern[i] = (byte) i;
             }
+            ppuMemory.writeBlock(0x0000, pattern, 0, pattern.length);
         }
         
         // Initialize name table with tile indices based on available data
         // This creates a pattern that shows the actual ROM content
         System.out.println("🎨 Initializing name table with tile data...");
-        for (int row = 0; row < 30; row++) {
-            for (int col = 0; col < 32; col++) {
-                // Use tile indices that correspond to the loaded data
-                int tileIndex = (row * 32 + col) % 256; // Wrap to 0-255 range
-                ppuMemory.write(0x2000 + row * 32 + col, tileIndex);
-            }
+        byte[] nameTable = new byte[30 * 32];
+        for (int i = 0; i < nameTable.length; i++) {
+            // Use tile indices that correspond to the loaded data
+            nameTable[i] = (byte) i; // Wrap to 0-255 range
         }
+        ppuMemory.writeBlock(0x2000, nameTable, 0, nameTable.length);
         
         // Mark tile patterns as dirty since we changed the data
         if (ppu != null) {
@@ -173,6 +192,10 @@ public class Main {
             ppu.reset();
         } else {
             ppu = new PPU(cpu, Mode.DEBUG, ppuMemory);
+            memory.registerIo(0x2000, 0x3FFF, 0x07, ppu);
+            if (!lockstep) {
+                ppu.attachScheduler(scheduler);
+            }
             ppu.enableRealTimeDisplay(displayWindow);
         }
         
@@ -183,22 +206,15 @@ public class Main {
         System.out.println("🚀 Starting emulator loop...");
         emulatorRunning = true;
         
-        final int CPU_CYCLES_PER_FRAME = 29829; // Approximate NTSC CPU cycles per frame
-        final int PPU_CYCLES_PER_CPU = 3;       // PPU runs at 3x CPU speed
         final long TARGET_FRAME_TIME_NS = 16_666_667L; // ~16.67ms
         
         while (displayWindow.isRunning() && emulatorRunning) {
             long frameStart = System.nanoTime();
             
-            // Run one full frame worth of work
-            for (int cpuCycle = 0; cpuCycle < CPU_CYCLES_PER_FRAME; cpuCycle++) {
-                // Execute one CPU cycle
-                cpu.clock();
-                
-                // PPU runs at 3x CPU speed
-                for (int p = 0; p < PPU_CYCLES_PER_CPU; p++) {
-                    ppu.clock();
-                }
+            if (lockstep) {
+                runFrameLockstep();
+            } else {
+                runFrame();
             }
             
             // Sleep the remainder to maintain 60 FPS
@@ -220,6 +236,32 @@ public class Main {
         System.out.println("⏹️ Emulator loop stopped");
         emulatorRunning = false;
     }
+
+    // Runs the CPU up to each scheduled event (VBlank, frame wrap, scanline IRQs) and
+    // lets the PPU catch up there or on register access, until it wraps to the next frame
+    private static void runFrame() {
+        int frame = ppu.getFrameCounter();
+        while (ppu.getFrameCounter() == frame) {
+            long target = Scheduler.toCpuCycle(scheduler.nextEventTime());
+            cpu.runUntil(target);
+            long reached = cpu.halted ? target : cpu.getCycleCount(); // halted: keep the PPU and display running
+            scheduler.advanceTo(reached * Scheduler.MASTER_PER_CPU_CYCLE);
+        }
+    }
+
+    // Reference timing: one instruction, then the PPU ticks 3 dots per CPU cycle
+    private static void runFrameLockstep() {
+        int frame = ppu.getFrameCounter();
+        while (ppu.getFrameCounter() == frame) {
+            int used = cpu.clock();
+            if (used == 0) {
+                used = 1; // CPU halted: keep the PPU and display running
+            }
+            for (int p = 0; p < used * 3; p++) {
+                ppu.clock();
+            }
+        }
+    }
     
     private static void cleanup() {
         System.out.println("🧹 Cleaning up...");
@@ -260,14 +302,17 @@ public class Main {
                 new Color(0, 0, 0)        // 3 = black
         };
 
+        byte[] chr = new byte[tileCount * 16];
+        chrRom.readBlock(0x0000, chr, 0, chr.length);
+
         for (int tile = 0; tile < tileCount; tile++) {
             int base = tile * 16;
             int tileX = (tile % tilesPerRow) * tileSize;
             int tileY = (tile / tilesPerRow) * tileSize;
 
             for (int y = 0; y < 8; y++) {
-                int b0 = chrRom.read(base + y);
-                int b1 = chrRom.read(base + y + 8);
+                int b0 = chr[base + y] & 0xFF;
+                int b1 = chr[base + y + 8] & 0xFF;
 
                 for (int x = 0; x < 8; x++) {
                     int bit0 = (b0 >> (7 - x)) & 1;
@@ -1,17 +1,22 @@
 import cpu6502.CPU6502;
+import cpu6502.IoHandler;
 import cpu6502.Memory;
 import cpu6502.MemoryPage;
 import cpu6502.Mode;
+import mapper.ScanlineCounter;
+import timing.Scheduler;
 import java.awt.Color;
 import java.awt.image.BufferedImage;
 import javax.imageio.ImageIO;
 import java.io.File;
 import java.io.IOException;
 
-public class PPU {
+public class PPU implements IoHandler {
     private static final int SCANLINES_PER_FRAME = 262;
     private static final int CYCLES_PER_SCANLINE = 341;
     private static final int VBLANK_START_LINE = 241;
+    private static final int PRE_RENDER_LINE = 261;
+    private static final int SCANLINE_COUNTER_DOT = 260; // where MMC3 sees A12 rise while rendering
     
     // Performance optimization constants
     private static final int TILES_PER_ROW = 32;
@@ -41,6 +46,27 @@ public class PPU {
     private Mode mode;
     private final MemoryPage[] ppuPages = new MemoryPage[16]; // 16 x 1KB = 16KB PPU address space
     private Memory ppuMemory;
+    private ScanlineCounter scanlineCounter; // null unless the cartridge counts scanlines
+
+    // CPU-visible registers ($2000-$2007, see read/write)
+    private int control;        // $2000 PPUCTRL
+    private int mask;           // $2001 PPUMASK
+    private boolean vblank;     // $2002 bit 7
+    private boolean nmiOutput;  // level last driven onto the CPU's NMI line
+    private int oamAddress;     // $2003 OAMADDR
+    private final byte[] oam = new byte[256];
+    private int vramAddress;    // current VRAM address (v)
+    private int tempAddress;    // $2005/$2006 latch target (t)
+    private int fineX;
+    private boolean writeToggle; // second write of $2005/$2006
+    private int readBuffer;     // $2007 reads lag one access behind
+
+    // Catch-up mode (attachScheduler): the PPU sleeps until something observes it (a
+    // register access, VBlank, a scanline-counter clock) and then advances all the
+    // dots up to that moment in one call
+    private Scheduler scheduler;
+    private Scheduler.Event nextEvent;
+    private long syncedTime; // master time the PPU position corresponds to
     private boolean renderOnNextVBlank = false;
     private DisplayWindow displayWindow;
     private boolean realTimeDisplay = false;
@@ -105,19 +131,112 @@ public class PPU {
 
     public void clock() {
         cycle++;
+        if (cycle == SCANLINE_COUNTER_DOT && countsThisLine()) {
+            scanlineCounter.onScanline();
+        }
         if (cycle >= CYCLES_PER_SCANLINE) {
             cycle = 0;
-            scanline++;
-            if (scanline == VBLANK_START_LINE) {
-                enterVBlank();
+            nextScanline();
+        }
+    }
+
+    // Same as `dots` calls to clock(), but stepping from one line end (or counter dot) to the next
+    public void advance(long dots) {
+        while (dots > 0) {
+            boolean counting = cycle < SCANLINE_COUNTER_DOT && countsThisLine();
+            int step = (counting ? SCANLINE_COUNTER_DOT : CYCLES_PER_SCANLINE) - cycle;
+            if (dots < step) {
+                cycle += (int) dots;
+                return;
             }
-            if (scanline >= SCANLINES_PER_FRAME) {
-                scanline = 0;
-                frameCounter++;
+            dots -= step;
+            cycle += step;
+            if (counting) {
+                scanlineCounter.onScanline();
+            } else {
+                cycle = 0;
+                nextScanline();
             }
         }
     }
 
+    private boolean countsThisLine() {
+        return scanlineCounter != null && (mask & 0x18) != 0
+                && (scanline < VBLANK_START_LINE - 1 || scanline == PRE_RENDER_LINE);
+    }
+
+    private void nextScanline() {
+        scanline++;
+        if (scanline == VBLANK_START_LINE) {
+            enterVBlank();
+        } else if (scanline == PRE_RENDER_LINE) {
+            vblank = false;
+            updateNmiLine();
+        }
+        if (scanline >= SCANLINES_PER_FRAME) {
+            scanline = 0;
+            frameCounter++;
+        }
+    }
+
+    // Switches to catch-up timing: from the scheduler's current time on, clock() is not
+    // used; the PPU runs when its event fires (VBlank start, the frame wrap and, while a
+    // scanline counter is counting, dot 260) or when the CPU touches a register
+    public void attachScheduler(Scheduler scheduler) {
+        this.scheduler = scheduler;
+        this.nextEvent = scheduler.register("PPU", () -> advanceTo(this.scheduler.now()));
+        this.syncedTime = scheduler.now();
+        scheduleNextEvent();
+    }
+
+    // Catches up to a master time in one call, a scanline at a time
+    public void advanceTo(long time) {
+        long dots = (time - syncedTime) / Scheduler.MASTER_PER_PPU_DOT;
+        if (dots > 0) {
+            advance(dots);
+            syncedTime += dots * Scheduler.MASTER_PER_PPU_DOT;
+        }
+        scheduleNextEvent();
+    }
+
+    // A register access sees the PPU as of the start of the accessing instruction,
+    // which is where lockstep ticking would have left it
+    private void catchUp() {
+        if (scheduler != null) {
+            advanceTo(cpu.getInstructionCycle() * Scheduler.MASTER_PER_CPU_CYCLE);
+        }
+    }
+
+    private void scheduleNextEvent() {
+        if (scheduler != null) {
+            scheduler.schedule(nextEvent, syncedTime + (long) dotsToNextEvent() * Scheduler.MASTER_PER_PPU_DOT);
+        }
+    }
+
+    private int dotsToNextEvent() {
+        int dots = Math.min(dotsUntil(VBLANK_START_LINE, 0), dotsUntil(0, 0));
+        if (scanlineCounter != null && (mask & 0x18) != 0) {
+            int line = cycle < SCANLINE_COUNTER_DOT ? scanline : scanline + 1;
+            if (line >= VBLANK_START_LINE - 1 && line < PRE_RENDER_LINE) {
+                line = PRE_RENDER_LINE;
+            }
+            dots = Math.min(dots, dotsUntil(line % SCANLINES_PER_FRAME, SCANLINE_COUNTER_DOT));
+        }
+        return dots;
+    }
+
+    // Dots from the current position until the PPU reaches (line, dot), at most one frame
+    private int dotsUntil(int line, int dot) {
+        int dots = (line - scanline) * CYCLES_PER_SCANLINE + dot - cycle;
+        return dots > 0 ? dots : dots + SCANLINES_PER_FRAME * CYCLES_PER_SCANLINE;
+    }
+
+    // The counter is clocked on lines 0-239 and 261 while background or sprites are enabled
+    public void setScanlineCounter(ScanlineCounter scanlineCounter) {
+        this.scanlineCounter = scanlineCounter;
+        scheduleNextEvent();
+    }
+
     public void requestRenderOnNextVBlank() {
         renderOnNextVBlank = true;
     }
@@ -166,6 +285,14 @@ public class PPU {
         frameCount = 0;
         lastFpsTime = System.currentTimeMillis();
         renderOnNextVBlank = false;
+        control = mask = 0;
+        vblank = false;
+        updateNmiLine();
+        writeToggle = false;
+        if (scheduler != null) {
+            syncedTime = scheduler.now();
+            scheduleNextEvent();
+        }
         
         // Mark tile patterns as dirty to force regeneration
         tilePatternsDirty = true;
@@ -182,8 +309,117 @@ public class PPU {
         }
     }
 
+    // Registers as seen through Memory.registerIo, mirrored every 8 bytes
+    @Override
+    public int read(int register) {
+        catchUp();
+        switch (register) {
+            case 2: {
+                int status = vblank ? 0x80 : 0x00;
+                vblank = false;
+                updateNmiLine();
+                writeToggle = false;
+                return status;
+            }
+            case 4:
+                return oam[oamAddress] & 0xFF;
+            case 7: {
+                int addr = vramAddress & 0x3FFF;
+                int value = readBuffer;
+                readBuffer = ppuMemory != null ? ppuMemory.read(addr) : 0;
+                if (addr >= 0x3F00) {
+                    value = readBuffer; // palette reads are not buffered
+                }
+                incrementVramAddress();
+                return value;
+            }
+            default:
+                return 0; // write-only registers
+        }
+    }
+
+    @Override
+    public void write(int register, int value) {
+        catchUp();
+        switch (register) {
+            case 0: {
+                control = value;
+                tempAddress = (tempAddress & 0xF3FF) | ((value & 0x03) << 10);
+                updateNmiLine(); // enabling NMI during VBlank fires at once
+                break;
+            }
+            case 1:
+                mask = value;
+                scheduleNextEvent(); // the scanline counter may have started or stopped
+                break;
+            case 3:
+                oamAddress = value;
+                break;
+            case 4:
+                oam[oamAddress] = (byte) value;
+                oamAddress = (oamAddress + 1) & 0xFF;
+                break;
+            case 5:
+                if (!writeToggle) {
+                    fineX = value & 0x07;
+                    tempAddress = (tempAddress & 0xFFE0) | (value >> 3);
+                } else {
+                    tempAddress = (tempAddress & 0x8C1F) | ((value & 0x07) << 12) | ((value & 0xF8) << 2);
+                }
+                writeToggle = !writeToggle;
+                break;
+            case 6:
+                if (!writeToggle) {
+                    tempAddress = (tempAddress & 0x00FF) | ((value & 0x3F) << 8);
+                } else {
+                    tempAddress = (tempAddress & 0xFF00) | value;
+                    vramAddress = tempAddress;
+                }
+                writeToggle = !writeToggle;
+                break;
+            case 7: {
+                int addr = vramAddress & 0x3FFF;
+                if (ppuMemory != null) {
+                    ppuMemory.write(addr, value);
+                }
+                if (addr < 0x2000) {
+                    tilePatternsDirty = true; // CHR RAM
+                }
+                incrementVramAddress();
+                break;
+            }
+            default:
+                break; // $2002 is read-only
+        }
+    }
+
+    private void incrementVramAddress() {
+        vramAddress = (vramAddress + ((control & 0x04) != 0 ? 32 : 1)) & 0x7FFF;
+    }
+
+    public byte[] getOam() {
+        return oam;
+    }
+
+    // OAM DMA ($4014): 256 bytes stored from OAMADDR on, wrapping, as 256 $2004 writes would
+    public void writeOamDma(byte[] page) {
+        int first = oam.length - oamAddress;
+        System.arraycopy(page, 0, oam, oamAddress, first);
+        System.arraycopy(page, first, oam, 0, oamAddress);
+    }
+
+    // The PPU's /NMI output is VBlank AND PPUCTRL bit 7; the CPU reacts to its rising edge
+    private void updateNmiLine() {
+        boolean asserted = vblank && (control & 0x80) != 0;
+        if (asserted != nmiOutput) {
+            nmiOutput = asserted;
+            cpu.setNmiLine(asserted);
+        }
+    }
+
     private void enterVBlank() {
-        cpu.requestNMI(); // Trigger NMI
+        vblank = true;
+        updateNmiLine();
         if (mode == Mode.DEBUG) {
             System.out.printf("🌀 VBlank — frame %d\n", frameCounter);
         }
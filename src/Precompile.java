@@ -0,0 +1,28 @@
+import java.io.File;
+import java.io.IOException;
+import cpu6502.StaticRecompiler;
+
+// Offline mode: compiles the code reachable in each ROM's PRG into the block cache
+// that Main loads at startup. Usage: java Precompile [-cache dir] rom.nes...
+public class Precompile {
+    public static void main(String[] args) throws IOException {
+        File cacheRoot = new File(StaticRecompiler.DEFAULT_CACHE_DIR);
+        int first = 0;
+        if (args.length >= 2 && args[0].equals("-cache")) {
+            cacheRoot = new File(args[1]);
+            first = 2;
+        }
+        if (first >= args.length) {
+            System.out.println("Usage: java Precompile [-cache dir] rom.nes...");
+            return;
+        }
+
+        for (int i = first; i < args.length; i++) {
+            INESFile rom = new INESFile(args[i]);
+            long start = System.currentTimeMillis();
+            int blocks = StaticRecompiler.compile(rom.prgRom, cacheRoot);
+            System.out.printf("⚡ %s: %d blocks → %s (%d ms)\n", args[i], blocks,
+                    StaticRecompiler.cacheDirectory(cacheRoot, rom.prgRom), System.currentTimeMillis() - start);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package cpu6502;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Caches DecodedBlocks by start PC. Blocks decoded from ROM are dropped when
+// their pages are remapped (bank switch); blocks decoded from anything else
+// are also dropped when one of their bytes is written.
+public class BlockCache {
+    private final Memory memory;
+    private final InstructionSet instructionSet;
+    private final DecodedBlock[] blocks = new DecodedBlock[0x10000];
+    private PrecompiledBlocks precompiled;
+
+    // Blocks that must be invalidated when a given 256-byte region is written
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private final List<DecodedBlock>[] regionBlocks = new List[256];
+
+    public BlockCache(Memory memory, InstructionSet instructionSet) {
+        this.memory = memory;
+        this.instructionSet = instructionSet;
+        memory.attachBlockCache(this);
+    }
+
+    public DecodedBlock get(int pc) {
+        DecodedBlock block = blocks[pc];
+        if (block == null || !block.isCurrent(memory)) {
+            block = decode(pc);
+            blocks[pc] = block;
+        }
+        return block;
+    }
+
+    private DecodedBlock decode(int startPC) {
+        int[] pcs = new int[DecodedBlock.MAX_INSTRUCTIONS];
+        int[] opcodes = new int[DecodedBlock.MAX_INSTRUCTIONS];
+        int[] operands = new int[DecodedBlock.MAX_INSTRUCTIONS];
+        int[] cycles = new int[DecodedBlock.MAX_INSTRUCTIONS];
+        Instruction[] handlers = new Instruction[DecodedBlock.MAX_INSTRUCTIONS];
+
+        int pc = startPC;
+        int count = 0;
+        while (count < DecodedBlock.MAX_INSTRUCTIONS) {
+            int opcode = memory.read(pc) & 0xFF;
+            int size = instructionSet.getSize(opcode);
+            int operand = 0;
+            for (int i = size - 1; i >= 1; i--) {
+                operand = (operand << 8) | (memory.read((pc + i) & 0xFFFF) & 0xFF);
+            }
+
+            pcs[count] = pc;
+            opcodes[count] = opcode;
+            operands[count] = operand;
+            cycles[count] = instructionSet.getCycles(opcode);
+            handlers[count] = instructionSet.get(opcode);
+            count++;
+            pc = (pc + size) & 0xFFFF;
+
+            if (instructionSet.endsBlock(opcode)) {
+                break;
+            }
+        }
+
+        DecodedBlock block = new DecodedBlock(startPC, pc, count, pcs, opcodes, operands,
+                cycles, handlers, memory);
+        Superinstructions.apply(block);
+        if (!block.inRom) {
+            watch(block);
+        } else if (precompiled != null) {
+            block.compiled = precompiled.find(block, memory);
+        }
+        return block;
+    }
+
+    private void watch(DecodedBlock block) {
+        int first = block.startPC >> 8;
+        int last = ((block.endPC - 1) & 0xFFFF) >> 8;
+        for (int region = first; ; region = (region + 1) & 0xFF) {
+            for (int alias : memory.aliasRegions(region)) {
+                if (regionBlocks[alias] == null) {
+                    regionBlocks[alias] = new ArrayList<>();
+                }
+                regionBlocks[alias].add(block);
+                memory.setCodeRegion(alias, true);
+            }
+            if (region == last) break;
+        }
+    }
+
+    // Called by Memory when a watched region is written
+    void invalidateRegion(int region) {
+        List<DecodedBlock> list = regionBlocks[region];
+        if (list != null) {
+            for (DecodedBlock block : list) {
+                block.valid = false;
+            }
+            list.clear();
+        }
+        memory.setCodeRegion(region, false);
+    }
+
+    // Blocks from a StaticRecompiler cache, used as ROM code is decoded (null for none)
+    public void setPrecompiled(PrecompiledBlocks precompiled) {
+        this.precompiled = precompiled;
+        clear();
+    }
+
+    public void clear() {
+        for (int region = 0; region < 256; region++) {
+            invalidateRegion(region);
+        }
+        Arrays.fill(blocks, null);
+    }
+}
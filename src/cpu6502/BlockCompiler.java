@@ -0,0 +1,200 @@
+package cpu6502;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+// Second execution tier. Blocks the interpreter has run HOT_THRESHOLD times are
+// queued here; a background thread turns them into Java source, compiles them in
+// memory with the system compiler and loads each as a hidden class. Compiled
+// code belongs to its DecodedBlock, so a code write or bank switch that drops
+// the block also drops the compiled code and the CPU goes back to interpreting.
+public final class BlockCompiler {
+    public static final int HOT_THRESHOLD = 1000;
+    private static final int MAX_BATCH = 64; // blocks per javac run
+    static final String PACKAGE = "cpu6502.";
+
+    private static BlockCompiler shared;
+
+    private final JavaCompiler javac;
+    private final MethodHandles.Lookup lookup = MethodHandles.lookup();
+    private final BlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+    private volatile boolean enabled = true;
+    private int nextClassId = 0;
+
+    private static final class Request {
+        final DecodedBlock block;
+        final Memory memory;
+
+        Request(DecodedBlock block, Memory memory) {
+            this.block = block;
+            this.memory = memory;
+        }
+    }
+
+    private BlockCompiler(JavaCompiler javac) {
+        this.javac = javac;
+        Thread worker = new Thread(this::compileLoop, "6502-block-compiler");
+        worker.setDaemon(true);
+        worker.setPriority(Thread.MIN_PRIORITY);
+        worker.start();
+    }
+
+    // The process-wide compiler, or null if this runtime has no Java compiler (JRE only)
+    static synchronized BlockCompiler shared() {
+        if (shared == null) {
+            JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+            if (javac == null) {
+                return null;
+            }
+            shared = new BlockCompiler(javac);
+        }
+        return shared.enabled ? shared : null;
+    }
+
+    void submit(DecodedBlock block, Memory memory) {
+        if (BlockSourceGenerator.canCompile(block)) {
+            queue.offer(new Request(block, memory));
+        }
+    }
+
+    private void compileLoop() {
+        List<Request> batch = new ArrayList<>();
+        while (enabled) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch, MAX_BATCH - 1);
+            compile(batch);
+            batch.clear();
+        }
+    }
+
+    private void compile(List<Request> batch) {
+        Map<String, Request> requests = new HashMap<>();
+        Map<String, String> sources = new HashMap<>();
+        for (Request request : batch) {
+            if (!request.block.valid) continue; // overwritten while queued
+            String className = String.format("Block%04X_%d", request.block.startPC, nextClassId++);
+            requests.put(PACKAGE + className, request);
+            sources.put(className, BlockSourceGenerator.generate(className, request.block, request.memory));
+        }
+        if (sources.isEmpty()) return;
+
+        Map<String, byte[]> classes;
+        try {
+            classes = compileSources(javac, sources);
+        } catch (IllegalStateException e) {
+            disable(e.getMessage());
+            return;
+        }
+
+        for (Map.Entry<String, byte[]> entry : classes.entrySet()) {
+            Request request = requests.get(entry.getKey());
+            if (request == null || !request.block.valid) continue;
+            try {
+                request.block.compiled = define(lookup, entry.getValue());
+            } catch (Throwable e) {
+                disable("could not load " + entry.getKey() + ": " + e);
+                return;
+            }
+        }
+    }
+
+    // Loads generated class bytes as a hidden class in this package and instantiates it
+    static CompiledBlock define(MethodHandles.Lookup lookup, byte[] classBytes) throws Throwable {
+        MethodHandles.Lookup hidden = lookup.defineHiddenClass(classBytes, true);
+        return (CompiledBlock) hidden
+                .findConstructor(hidden.lookupClass(), MethodType.methodType(void.class))
+                .invoke();
+    }
+
+    // Compiles simple class name -> source in the cpu6502 package to memory and returns
+    // qualified class name -> class bytes; throws IllegalStateException with the first error
+    static Map<String, byte[]> compileSources(JavaCompiler javac, Map<String, String> sources) {
+        List<JavaFileObject> units = new ArrayList<>();
+        for (Map.Entry<String, String> source : sources.entrySet()) {
+            units.add(new SourceFile(source.getKey(), source.getValue()));
+        }
+
+        Map<String, ByteArrayOutputStream> output = new HashMap<>();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        StandardJavaFileManager standard = javac.getStandardFileManager(diagnostics, null, null);
+        JavaFileManager fileManager = new ForwardingJavaFileManager<JavaFileManager>(standard) {
+            @Override
+            public JavaFileObject getJavaFileForOutput(Location location, String className,
+                                                       JavaFileObject.Kind kind, FileObject sibling) {
+                return new SimpleJavaFileObject(URI.create("mem:///" + className.replace('.', '/')
+                        + kind.extension), kind) {
+                    @Override
+                    public OutputStream openOutputStream() {
+                        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                        output.put(className, bytes);
+                        return bytes;
+                    }
+                };
+            }
+        };
+
+        List<String> options = Arrays.asList("-classpath", System.getProperty("java.class.path"),
+                "-proc:none", "-g:none", "-nowarn");
+        boolean ok = javac.getTask(null, fileManager, diagnostics, options, null, units).call();
+        if (!ok) {
+            String message = "javac failed";
+            for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+                if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                    message = diagnostic.getMessage(null);
+                    break;
+                }
+            }
+            throw new IllegalStateException(message);
+        }
+
+        Map<String, byte[]> classes = new HashMap<>();
+        for (Map.Entry<String, ByteArrayOutputStream> entry : output.entrySet()) {
+            classes.put(entry.getKey(), entry.getValue().toByteArray());
+        }
+        return classes;
+    }
+
+    private void disable(String reason) {
+        enabled = false;
+        queue.clear();
+        System.err.println("⚠️ Block compiler disabled, interpreting only: " + reason);
+    }
+
+    private static final class SourceFile extends SimpleJavaFileObject {
+        private final String source;
+
+        SourceFile(String className, String source) {
+            super(URI.create("string:///cpu6502/" + className + Kind.SOURCE.extension), Kind.SOURCE);
+            this.source = source;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return source;
+        }
+    }
+}
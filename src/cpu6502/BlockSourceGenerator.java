@@ -0,0 +1,421 @@
+package cpu6502;
+
+import instructions.system.IllegalOpcode;
+
+// Writes the Java source of a CompiledBlock for a DecodedBlock. A, X and Y are
+// kept in locals for the whole block, base cycles are summed at generation time,
+// operand reads from the block's own ROM pages are folded to constants and N/Z
+// are only recorded where a later instruction (or the code after the block) can
+// read them. Opcodes without a template call the block's interpreter handler.
+// Every instruction is entered in the CPU's execution history with the locals.
+final class BlockSourceGenerator {
+    // Bump when generated code changes shape; on-disk caches of older versions are ignored
+    static final int VERSION = 8;
+
+    private static final boolean[] TEMPLATE = new boolean[256];
+    private static final boolean[] WRITES_NZ = new boolean[256];
+    private static final boolean[] STORES = new boolean[256];
+    static {
+        int[] nzWriters = {
+                0xA9, 0xAD, 0xBD, 0xB9, 0xB1,                   // LDA
+                0xA2, 0xA6, 0xB6, 0xAE, 0xBE,                   // LDX
+                0xA0, 0xA4, 0xB4, 0xAC, 0xBC,                   // LDY
+                0xAA, 0xA8, 0x8A, 0xBA, 0x68,                   // TAX, TAY, TXA, TSX, PLA
+                0xE8, 0xCA, 0xC8, 0x88,                         // INX, DEX, INY, DEY
+                0xC9, 0xE0, 0xC0,                               // CMP, CPX, CPY
+                0x09, 0x05, 0x1D, 0x19, 0x29, 0x3D, 0x45,       // ORA, AND, EOR
+                0x0A, 0x4A, 0x2A, 0x6A,                         // ASL, LSR, ROL, ROR A
+                0x7D, 0xFD, 0xF9,                               // ADC, SBC
+                0xE6, 0xCE                                      // INC, DEC
+        };
+        int[] stores = {0x85, 0x86, 0x8D, 0x9D, 0x99, 0x91, 0x48, 0xE6, 0xCE};
+        int[] others = {
+                0x9A, 0xEA,                                     // TXS, NOP
+                0x18, 0x38, 0xD8, 0xF8, 0x58, 0x78,             // CLC, SEC, CLD, SED, CLI, SEI
+                0x4C, 0x20,                                     // JMP, JSR
+                0x10, 0x30, 0x50, 0x70, 0x90, 0xB0, 0xD0, 0xF0  // branches
+        };
+        for (int opcode : nzWriters) {
+            TEMPLATE[opcode] = true;
+            WRITES_NZ[opcode] = true;
+        }
+        for (int opcode : stores) {
+            TEMPLATE[opcode] = true;
+            STORES[opcode] = true;
+        }
+        for (int opcode : others) {
+            TEMPLATE[opcode] = true;
+        }
+    }
+
+    private final DecodedBlock block;
+    private final Memory memory;
+    private final StringBuilder out = new StringBuilder();
+    private int baseCycles; // base cycles of the instructions emitted so far
+    private boolean nzStale; // an N/Z update was dropped and not yet overwritten: cpu's N/Z lag
+    private String indent = "        ";
+
+    private BlockSourceGenerator(DecodedBlock block, Memory memory) {
+        this.block = block;
+        this.memory = memory;
+    }
+
+    // Blocks ending in an illegal opcode halt the CPU and are left to the interpreter
+    static boolean canCompile(DecodedBlock block) {
+        for (int i = 0; i < block.count; i++) {
+            if (block.handlers[i] instanceof IllegalOpcode) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // With memory == null no ROM reads are folded (the code may later run against other banks)
+    static String generate(String className, DecodedBlock block, Memory memory) {
+        return new BlockSourceGenerator(block, memory).generate(className);
+    }
+
+    private String generate(String className) {
+        boolean[] nzLive = nzLiveAfter();
+
+        out.append("package cpu6502;\n\n");
+        out.append("final class ").append(className).append(" implements CompiledBlock {\n");
+        out.append("    @Override\n");
+        out.append("    public int run(CPU6502 cpu, Memory memory, DecodedBlock block) {\n");
+        stmt("int a = cpu.A, x = cpu.X, y = cpu.Y;");
+        stmt("int cycles = 0;");
+        stmt("int address, value;");
+
+        boolean exited = false;
+        for (int i = 0; i < block.count; i++) {
+            int pc = block.pcs[i];
+            int next = i + 1 < block.count ? block.pcs[i + 1] : block.endPC;
+            baseCycles += block.cycles[i];
+            out.append(String.format("        // $%04X: %02X\n", pc, block.opcodes[i]));
+            stmt("cpu.recordInstruction(" + hex16(pc) + ", " + hex8(block.opcodes[i]) + ", a, x, y, "
+                    + nzStale + ");");
+            if (mayTouchIo(i)) {
+                stmt("cpu.markInstruction(" + (baseCycles - block.cycles[i]) + " + cycles, "
+                        + block.cycles[i] + ");");
+            }
+            exited = emit(i, pc, next, nzLive[i]);
+            if (!exited && mayTouchIo(i) && i < block.count - 1) {
+                // An interrupt request or DMA stall from the access ends the block here
+                stmt("if (cpu.blockExitRequested()) {");
+                indent = "            ";
+                exit(hex16(next), 0);
+                indent = "        ";
+                stmt("}");
+            }
+        }
+        if (!exited) {
+            exit(hex16(block.endPC), 0);
+        }
+
+        out.append("    }\n");
+        out.append("}\n");
+        return out.toString();
+    }
+
+    // Backwards pass: N/Z must be recorded after instruction i if something reads
+    // them before the next instruction that overwrites both
+    private boolean[] nzLiveAfter() {
+        boolean[] liveAfter = new boolean[block.count];
+        boolean live = true; // the interpreter may read them after the block
+        for (int i = block.count - 1; i >= 0; i--) {
+            int opcode = block.opcodes[i];
+            if (hasWriteGuard(i) || (mayTouchIo(i) && i < block.count - 1)) {
+                live = true; // early exit point: a write guard or a blockExitRequested check
+            }
+            liveAfter[i] = live;
+            if (!TEMPLATE[opcode] || opcode == 0xD0 || opcode == 0xF0 || opcode == 0x10 || opcode == 0x30) {
+                live = true;
+            } else if (WRITES_NZ[opcode]) {
+                live = false;
+            }
+        }
+        return liveAfter;
+    }
+
+    // Code outside ROM may overwrite itself: after each store the block checks that
+    // it is still valid and otherwise returns to the interpreter at the next instruction
+    private boolean hasWriteGuard(int i) {
+        int opcode = block.opcodes[i];
+        return !block.inRom && i < block.count - 1 && (STORES[opcode] || !TEMPLATE[opcode]);
+    }
+
+    // Whether instruction i can reach a register ($2000 and up, not RAM): then the
+    // CPU is told which cycle the instruction started on before it runs
+    private boolean mayTouchIo(int i) {
+        int opcode = block.opcodes[i];
+        int pc = block.pcs[i];
+        int size = ((i + 1 < block.count ? block.pcs[i + 1] : block.endPC) - pc) & 0xFFFF;
+        if (opcode == 0x4C || opcode == 0x20) {
+            return false; // JMP/JSR abs: no data access
+        }
+        if (size == 3) {
+            return block.operands[i] >= 0x1F00; // indexing from $1Fxx can reach $2000
+        }
+        // (zp,X) and (zp),Y: the official x1 and x11 columns and the unofficial x3 and x13 ones
+        return size == 2 && (opcode & 0x0D) == 0x01;
+    }
+
+    // Emits instruction i; returns true if it ended the method
+    private boolean emit(int i, int pc, int next, boolean nzLive) {
+        int opcode = block.opcodes[i];
+        int operand = block.operands[i];
+        int zp = operand & 0xFF;
+
+        switch (opcode) {
+            // Loads
+            case 0xA9: load("a", hex8(zp), nzLive); break;
+            case 0xAD: load("a", readAbsolute(operand), nzLive); break;
+            case 0xBD: load("a", readIndexed(operand, "x"), nzLive); break;
+            case 0xB9: load("a", readIndexed(operand, "y"), nzLive); break;
+            case 0xB1: load("a", readIndirectY(zp), nzLive); break;
+            case 0xA2: load("x", hex8(zp), nzLive); break;
+            case 0xA6: load("x", read(hex8(zp)), nzLive); break;
+            case 0xB6: load("x", read("(" + hex8(zp) + " + y) & 0xFF"), nzLive); break;
+            case 0xAE: load("x", readAbsolute(operand), nzLive); break;
+            case 0xBE: load("x", readIndexed(operand, "y"), nzLive); break;
+            case 0xA0: load("y", hex8(zp), nzLive); break;
+            case 0xA4: load("y", read(hex8(zp)), nzLive); break;
+            case 0xB4: load("y", read("(" + hex8(zp) + " + x) & 0xFF"), nzLive); break;
+            case 0xAC: load("y", readAbsolute(operand), nzLive); break;
+            case 0xBC: load("y", readIndexed(operand, "x"), nzLive); break;
+
+            // Stores
+            case 0x85: store(i, next, hex8(zp), "a"); break;
+            case 0x86: store(i, next, hex8(zp), "x"); break;
+            case 0x8D: store(i, next, hex16(operand), "a"); break;
+            case 0x9D: store(i, next, "(" + hex16(operand) + " + x) & 0xFFFF", "a"); break;
+            case 0x99: store(i, next, "(" + hex16(operand) + " + y) & 0xFFFF", "a"); break;
+            case 0x91:
+                stmt("value = " + pointer(zp) + ";");
+                store(i, next, "(value + y) & 0xFFFF", "a");
+                break;
+
+            // Transfers and stack
+            case 0xAA: load("x", "a", nzLive); break;
+            case 0xA8: load("y", "a", nzLive); break;
+            case 0x8A: load("a", "x", nzLive); break;
+            case 0xBA: load("x", "cpu.SP", nzLive); break;
+            case 0x9A: stmt("cpu.SP = x;"); break;
+            case 0x48:
+                stmt("cpu.pushStack(a, memory);");
+                guard(i, next);
+                break;
+            case 0x68:
+                stmt("cpu.SP = (cpu.SP + 1) & 0xFF;");
+                load("a", read("0x0100 + cpu.SP"), nzLive);
+                break;
+
+            // Increments and decrements
+            case 0xE8: load("x", "(x + 1) & 0xFF", nzLive); break;
+            case 0xCA: load("x", "(x - 1) & 0xFF", nzLive); break;
+            case 0xC8: load("y", "(y + 1) & 0xFF", nzLive); break;
+            case 0x88: load("y", "(y - 1) & 0xFF", nzLive); break;
+            case 0xE6: readModifyWrite(i, next, hex8(zp), "+ 1", nzLive); break;
+            case 0xCE: readModifyWrite(i, next, hex16(operand), "- 1", nzLive); break;
+
+            // Flags
+            case 0x18: stmt("cpu.setFlag(CPU6502.FLAG_CARRY, false);"); break;
+            case 0x38: stmt("cpu.setFlag(CPU6502.FLAG_CARRY, true);"); break;
+            case 0xD8: stmt("cpu.setFlag(CPU6502.FLAG_DECIMAL, false);"); break;
+            case 0xF8: stmt("cpu.setFlag(CPU6502.FLAG_DECIMAL, true);"); break;
+            case 0x58: stmt("cpu.setFlag(CPU6502.FLAG_INTERRUPT, false);"); break;
+            case 0x78: stmt("cpu.setFlag(CPU6502.FLAG_INTERRUPT, true);"); break;
+
+            // Compares
+            case 0xC9: compare("a", zp); break;
+            case 0xE0: compare("x", zp); break;
+            case 0xC0: compare("y", zp); break;
+
+            // Logic
+            case 0x09: load("a", "a | " + hex8(zp), nzLive); break;
+            case 0x05: load("a", "a | " + read(hex8(zp)), nzLive); break;
+            case 0x1D: load("a", "a | " + readIndexed(operand, "x"), nzLive); break;
+            case 0x19: load("a", "a | " + readIndexed(operand, "y"), nzLive); break;
+            case 0x29: load("a", "a & " + hex8(zp), nzLive); break;
+            case 0x3D: load("a", "a & " + readIndexed(operand, "x"), nzLive); break;
+            case 0x45: load("a", "a ^ " + read(hex8(zp)), nzLive); break;
+
+            // Shifts on A
+            case 0x0A:
+                stmt("cpu.setFlag(CPU6502.FLAG_CARRY, (a & 0x80) != 0);");
+                load("a", "(a << 1) & 0xFF", nzLive);
+                break;
+            case 0x4A:
+                stmt("cpu.setFlag(CPU6502.FLAG_CARRY, (a & 0x01) != 0);");
+                load("a", "a >> 1", nzLive);
+                break;
+            case 0x2A:
+                stmt("value = cpu.getFlag(CPU6502.FLAG_CARRY) ? 0x01 : 0;");
+                stmt("cpu.setFlag(CPU6502.FLAG_CARRY, (a & 0x80) != 0);");
+                load("a", "((a << 1) | value) & 0xFF", nzLive);
+                break;
+            case 0x6A:
+                stmt("value = cpu.getFlag(CPU6502.FLAG_CARRY) ? 0x80 : 0;");
+                stmt("cpu.setFlag(CPU6502.FLAG_CARRY, (a & 0x01) != 0);");
+                load("a", "(a >> 1) | value", nzLive);
+                break;
+
+            // Arithmetic goes through the CPU's lazy-flag helpers
+            case 0x7D: arithmetic("addWithCarry", readIndexed(operand, "x")); break;
+            case 0xFD: arithmetic("subtractWithCarry", readIndexed(operand, "x")); break;
+            case 0xF9: arithmetic("subtractWithCarry", readIndexed(operand, "y")); break;
+
+            case 0xEA: break;
+
+            // Control flow always ends the block
+            case 0x4C:
+                exit(hex16(operand), 0);
+                return true;
+            case 0x20: {
+                int returnAddr = (pc + 2) & 0xFFFF;
+                stmt("cpu.pushStack(" + hex8(returnAddr >> 8) + ", memory);");
+                stmt("cpu.pushStack(" + hex8(returnAddr & 0xFF) + ", memory);");
+                exit(hex16(operand), 0);
+                return true;
+            }
+            case 0x10: return branch(next, zp, "!cpu.getFlag(CPU6502.FLAG_NEGATIVE)");
+            case 0x30: return branch(next, zp, "cpu.getFlag(CPU6502.FLAG_NEGATIVE)");
+            case 0x50: return branch(next, zp, "!cpu.getFlag(CPU6502.FLAG_OVERFLOW)");
+            case 0x70: return branch(next, zp, "cpu.getFlag(CPU6502.FLAG_OVERFLOW)");
+            case 0x90: return branch(next, zp, "!cpu.getFlag(CPU6502.FLAG_CARRY)");
+            case 0xB0: return branch(next, zp, "cpu.getFlag(CPU6502.FLAG_CARRY)");
+            case 0xD0: return branch(next, zp, "!cpu.getFlag(CPU6502.FLAG_ZERO)");
+            case 0xF0: return branch(next, zp, "cpu.getFlag(CPU6502.FLAG_ZERO)");
+
+            default:
+                return interpret(i, pc, next);
+        }
+        return false;
+    }
+
+    private void load(String register, String expression, boolean nzLive) {
+        stmt(register + " = " + expression + ";");
+        if (nzLive) {
+            stmt("cpu.setNZ(" + register + ");");
+        }
+        nzStale = !nzLive;
+    }
+
+    private void store(int i, int next, String address, String register) {
+        stmt("memory.write(" + address + ", " + register + ");");
+        guard(i, next);
+    }
+
+    private void readModifyWrite(int i, int next, String address, String operation, boolean nzLive) {
+        stmt("value = (" + read(address) + " " + operation + ") & 0xFF;");
+        if (nzLive) {
+            stmt("cpu.setNZ(value);");
+        }
+        nzStale = !nzLive;
+        stmt("memory.write(" + address + ", value);");
+        guard(i, next);
+    }
+
+    private void compare(String register, int operand) {
+        stmt("cpu.compare(" + register + ", " + hex8(operand) + ");");
+        nzStale = false; // compare sets N/Z on the CPU
+    }
+
+    private void arithmetic(String helper, String operand) {
+        nzStale = false; // the helper sets N/Z on the CPU
+        stmt("value = " + operand + ";");
+        stmt("cpu.A = a;");
+        stmt("cpu." + helper + "(value);");
+        stmt("a = cpu.A;");
+    }
+
+    private boolean branch(int next, int offset, String condition) {
+        int target = (next + (offset < 0x80 ? offset : offset - 0x100)) & 0xFFFF;
+        int penalty = 1 + CPU6502.pageCrossed(next, target);
+        stmt("if (" + condition + ") {");
+        indent = "            ";
+        exit(hex16(target), penalty);
+        indent = "        ";
+        stmt("}");
+        exit(hex16(next), 0);
+        return true;
+    }
+
+    // Runs the interpreter handler with the registers spilled to the CPU
+    private boolean interpret(int i, int pc, int next) {
+        stmt("cpu.A = a; cpu.X = x; cpu.Y = y;");
+        stmt("cpu.PC = " + hex16((pc + 1) & 0xFFFF) + ";");
+        stmt("block.handlers[" + i + "].execute(cpu, memory);");
+        if (i == block.count - 1) {
+            // The handler has set PC (it may be a jump, return or BRK)
+            stmt("return " + baseCycles + " + cycles;");
+            return true;
+        }
+        stmt("a = cpu.A; x = cpu.X; y = cpu.Y;");
+        guard(i, next);
+        return false;
+    }
+
+    private void guard(int i, int next) {
+        if (hasWriteGuard(i)) {
+            stmt("if (!block.valid) {");
+            indent = "            ";
+            exit(hex16(next), 0);
+            indent = "        ";
+            stmt("}");
+        }
+    }
+
+    private void exit(String pc, int extraCycles) {
+        stmt("cpu.A = a; cpu.X = x; cpu.Y = y; cpu.PC = " + pc + ";");
+        stmt("return " + (baseCycles + extraCycles) + " + cycles;");
+    }
+
+    // Reads through the memory map, or folds the value if it is ROM on one of the
+    // block's own pages (a bank switch there replaces the whole block)
+    private String readAbsolute(int address) {
+        if (memory != null && block.inRom && isOwnPage(memory.pageIndex(address)) && memory.isRom(address)) {
+            return hex8(memory.read(address) & 0xFF);
+        }
+        return read(hex16(address));
+    }
+
+    private boolean isOwnPage(int page) {
+        return page == block.firstPage || page == block.lastPage;
+    }
+
+    // abs,X / abs,Y with the page-cross penalty
+    private String readIndexed(int base, String index) {
+        stmt("address = (" + hex16(base) + " + " + index + ") & 0xFFFF;");
+        stmt("cycles += CPU6502.pageCrossed(" + hex16(base) + ", address);");
+        return read("address");
+    }
+
+    // (zp),Y with the page-cross penalty
+    private String readIndirectY(int zp) {
+        stmt("value = " + pointer(zp) + ";");
+        stmt("address = (value + y) & 0xFFFF;");
+        stmt("cycles += CPU6502.pageCrossed(value, address);");
+        return read("address");
+    }
+
+    private String pointer(int zp) {
+        return read(hex8(zp)) + " | (" + read(hex8((zp + 1) & 0xFF)) + " << 8)";
+    }
+
+    private static String read(String address) {
+        return "(memory.read(" + address + ") & 0xFF)";
+    }
+
+    private void stmt(String statement) {
+        out.append(indent).append(statement).append('\n');
+    }
+
+    private static String hex8(int value) {
+        return String.format("0x%02X", value);
+    }
+
+    private static String hex16(int value) {
+        return String.format("0x%04X", value);
+    }
+}
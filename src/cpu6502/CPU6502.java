@@ -1,5 +1,14 @@
 package cpu6502;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
 public class CPU6502 {
     // Registers
     public int A = 0x00;  // Accumulator
@@ -7,8 +16,15 @@ public class CPU6502 {
     public int Y = 0x00;  // Y index
     public int SP = 0xFD; // Stack Pointer
     public int PC = 0x0000; // Program Counter
-    public int status = 0x00; // Processor Status Register
 
+    // Processor status is split: I, D, B and U live in `status`, while N, Z, C and V
+    // are kept as the inputs of the last instruction that set them and only
+    // evaluated when something reads them (branches, pushes, getFlag, printState).
+    private int status = 0x00;
+    private int zeroResult = 1;     // Z set when the low byte is 0
+    private int negativeResult = 0; // N = bit 7
+    private int carryResult = 0;    // C = bit 8
+    private int overflowResult = 0; // V = bit 7
 
 
     // Status flag bitmasks
@@ -22,18 +38,70 @@ public class CPU6502 {
     public static final int FLAG_NEGATIVE  = 0x80; // N
     //Halt execution
     public boolean halted = false;
-    public boolean nmiRequested = false;
-    public boolean irqRequested = false;
 
-    private int lastPC = 0;
-    private int lastOpcode = 0;
+    // IRQ sources. The IRQ input is level-triggered and shared: each source holds its
+    // own bit until it is acknowledged, and the line is asserted while any bit is set
+    public static final int IRQ_MAPPER    = 0x01;
+    public static final int IRQ_APU_FRAME = 0x02;
+    public static final int IRQ_DMC       = 0x04;
+    private static final int IRQ_LINES    = 0xFF;
+    // NMI is edge-triggered: a rising edge latches this bit until the NMI is taken
+    private static final int NMI_PENDING  = 0x100;
+
+    // Asserted IRQ sources | NMI_PENDING. Only read between blocks and single steps,
+    // so the execution loop tests one field for every kind of interrupt
+    private int pendingEvents = 0;
+    private boolean nmiLine = false;
+
+    // The last instructions executed, and what goes into the crash bundle with them
+    private static final int HISTORY_SIZE = 1024;
+    private final ExecutionHistory history = new ExecutionHistory(HISTORY_SIZE);
+    private final Map<String, Supplier<byte[]>> crashSections = new LinkedHashMap<>();
+    private Path crashBundlePath = Paths.get("crash_dump.bin");
+
+    // Cycles executed since construction
+    private long totalCycles = 0;
+    // Penalty cycles (page crossings, taken branches) added by the instruction being executed
+    private int extraCycles = 0;
+
+    // Set when an interrupt is requested or a DMA stall starts; a running block stops after
+    // the current instruction, so runUntil can take the interrupt or honour its target
+    private boolean blockExit = false;
+
+    // Drives the NMI input; only the low-to-high transition requests an NMI
+    public void setNmiLine(boolean asserted) {
+        if (asserted && !nmiLine) {
+            pendingEvents |= NMI_PENDING;
+            blockExit = true;
+        }
+        nmiLine = asserted;
+    }
 
+    // Latches an NMI directly, as a pulse on the line would
     public void requestNMI() {
-        this.nmiRequested = true;
+        pendingEvents |= NMI_PENDING;
+        blockExit = true;
+    }
+
+    // Asserts or releases one source's IRQ output (IRQ_MAPPER, IRQ_APU_FRAME, IRQ_DMC)
+    public void setIrqLine(int source, boolean asserted) {
+        if ((source & ~IRQ_LINES) != 0 || source == 0) {
+            throw new IllegalArgumentException("Invalid IRQ source: " + source);
+        }
+        if (asserted) {
+            blockExit |= (pendingEvents & source) == 0;
+            pendingEvents |= source;
+        } else {
+            pendingEvents &= ~source;
+        }
     }
 
-    public void requestIRQ() {
-        this.irqRequested = true;
+    public boolean isIrqAsserted() {
+        return (pendingEvents & IRQ_LINES) != 0;
+    }
+
+    public boolean isNmiPending() {
+        return (pendingEvents & NMI_PENDING) != 0;
     }
 
     public Mode getMode() {
@@ -47,20 +115,68 @@ public class CPU6502 {
     private Memory memory;
     private Mode mode;
     private final InstructionSet instructionSet = new InstructionSet();
+    private final BlockCache blockCache;
+    private boolean blockCacheEnabled = true;
+    private boolean recompilerEnabled = true;
+    private boolean idleSkipEnabled = true;
+    private long idleCyclesSkipped = 0;
+    private boolean exactStops = false;
+
+    // The cycle-stepped core, or null when running the fast core
+    private final CycleStepper stepper;
+
+    // Cycles from totalCycles to the start of the instruction being executed; with
+    // runUntil publishing totalCycles at every dispatch this dates I/O accesses
+    private int instructionOffset = 0;
+    // Base cycles of that instruction (fast core), for getWriteCycle
+    private int instructionCycles = 0;
+
+    // Opcode-fetch cache: the array behind the page PC is on, valid while PC stays
+    // on that page and no page is remapped
+    private byte[] fetchData;
+    private int fetchMask;
+    private int fetchOffset;
+    private int fetchPage = -1;
+    private int fetchGeneration;
+
     public CPU6502(Memory memory) {
-        this.memory = memory;
+        this(memory, null, CpuCore.FAST);
     }
 
     public CPU6502(Memory memory, Mode mode) {
-        this(memory);
+        this(memory, mode, CpuCore.FAST);
+    }
+
+    public CPU6502(Memory memory, Mode mode, CpuCore core) {
+        if (core == null) {
+            throw new IllegalArgumentException("No CPU core selected");
+        }
+        this.memory = memory;
         this.mode = mode;
+        this.blockCache = new BlockCache(memory, instructionSet);
+        this.stepper = core == CpuCore.CYCLE_STEPPED ? new CycleStepper(this, memory) : null;
+    }
+
+    public CpuCore getCore() {
+        return stepper != null ? CpuCore.CYCLE_STEPPED : CpuCore.FAST;
     }
 
     public void reset() {
         PC = memory.readWord(0xFFFC); // Reset vector
         SP = 0xFD;
         A = X = Y = 0;
-        status = 0x24;
+        setStatus(0x24);
+        // A latched NMI and any half-charged stall belong to the program being replaced; the
+        // IRQ sources keep their lines and release them themselves (see Mapper.create)
+        pendingEvents &= ~NMI_PENDING;
+        nmiLine = false;
+        extraCycles = 0;
+        instructionOffset = 0;
+        instructionCycles = 0;
+        blockExit = false;
+        if (stepper != null) {
+            stepper.reset();
+        }
         System.out.printf("🔁 CPU Reset — Reset vector loaded: %04X\n", PC);
     }
 
@@ -80,48 +196,382 @@ public class CPU6502 {
 
     public int clock() {
         if (halted) return 0;
+        if (stepper != null) {
+            return clockStepped();
+        }
+
+        if (pendingEvents != 0) {
+            int interruptCycles = pollInterrupts();
+            if (interruptCycles != 0) {
+                totalCycles += interruptCycles;
+                return interruptCycles;
+            }
+        }
+        if (PC == 0x0000) {
+            System.err.println("🚨 PC jumped to $0000 — likely invalid return or vector.");
+        }
+
+        int pc = PC;
+        int opcode = fetch();
+        recordInstruction(pc, opcode);
+        instructionCycles = instructionSet.getCycles(opcode);
+
+        int cycles = executeInstruction(opcode);
+        totalCycles += cycles;
+        return cycles;
+    }
+
+    // Cycle-stepped clock(): finishes the instruction in progress (or runs the next one),
+    // then any DMA stall it triggered
+    private int clockStepped() {
+        long start = totalCycles;
+        while (!tick() && !halted) {
+        }
+        while (extraCycles > 0) {
+            tick();
+        }
+        return (int) (totalCycles - start);
+    }
 
+    // One CPU cycle on the cycle-stepped core: a single bus access, or a DMA stall cycle.
+    // Returns true if the cycle completed an instruction or interrupt sequence
+    public boolean tick() {
+        if (stepper == null) {
+            throw new IllegalStateException("tick() needs the cycle-stepped core");
+        }
+        if (halted) return false;
+        if (extraCycles > 0 && stepper.atInstructionBoundary()) {
+            extraCycles--; // the CPU is halted for DMA between instructions
+            totalCycles++;
+            return false;
+        }
+        boolean done = stepper.tick();
+        totalCycles++;
+        return done;
+    }
+
+    // Runs whole instructions for at least `budget` cycles and returns the cycles
+    // actually used (more if the last instruction overshoots, fewer on halt/interrupt)
+    public int runCycles(int budget) {
+        return (int) runUntil(totalCycles + budget);
+    }
+
+    // Runs until the cycle counter reaches targetCycle. A pending interrupt is taken on
+    // entry; one raised mid-run stops it early so the caller can sync the PPU first.
+    public long runUntil(long targetCycle) {
+        final Memory memory = this.memory;
+        final InstructionSet instructionSet = this.instructionSet;
+        final long start = totalCycles;
+        if (stepper != null) {
+            // Cycle-stepped: stop on the target cycle exactly, even inside an instruction
+            while (totalCycles < targetCycle && !halted) {
+                tick();
+            }
+            return totalCycles - start;
+        }
+        long cycles = start;
+
+        while (cycles < targetCycle && !halted) {
+            totalCycles = cycles;
+            instructionOffset = 0;
+            // Blocks end at CLI/SEI/PLP/RTI, so the I flag cannot change mid-block
+            if (pendingEvents != 0 && interruptReady()) {
+                if (cycles != start) break;
+                cycles += pollInterrupts();
+                continue;
+            }
+
+            if (blockCacheEnabled) {
+                DecodedBlock block = blockCache.get(PC & 0xFFFF);
+                // With exact stops a block that may cross the target is single-stepped,
+                // so the run ends at the same instruction boundary clock() would reach
+                if (!exactStops || cycles + block.maxCycles <= targetCycle) {
+                    if (block.idleLoop && idleSkipEnabled) {
+                        cycles += runIdleLoop(block, targetCycle - cycles);
+                    } else {
+                        cycles += executeBlock(block);
+                    }
+                    continue;
+                }
+            }
+
+            int pc = PC;
+            int opcode = fetch();
+            recordInstruction(pc, opcode);
+            instructionCycles = instructionSet.getCycles(opcode);
+
+            instructionSet.get(opcode).execute(this, memory);
+            cycles += instructionSet.getCycles(opcode) + extraCycles;
+            extraCycles = 0;
+        }
+
+        totalCycles = cycles;
+        instructionOffset = 0;
+        return cycles - start;
+    }
+
+    // Replays a decoded block: no opcode fetch, table lookup or interrupt poll per instruction
+    private int executeBlock(DecodedBlock block) {
+        final Memory memory = this.memory;
+        CompiledBlock compiled = block.compiled;
+        blockExit = false;
+        if (compiled != null) {
+            int cycles = compiled.run(this, memory, block) + extraCycles;
+            extraCycles = 0;
+            return cycles;
+        }
+        if (++block.executions == BlockCompiler.HOT_THRESHOLD && recompilerEnabled) {
+            BlockCompiler compiler = BlockCompiler.shared();
+            if (compiler != null) {
+                compiler.submit(block, memory);
+            }
+        }
+
+        final int[] pcs = block.stepPcs;
+        final int[] opcodes = block.stepOpcodes;
+        final int[] blockCycles = block.stepCycles;
+        final Instruction[] handlers = block.stepHandlers;
+        final int count = block.steps;
+
+        int cycles = 0;
+        for (int i = 0; i < count; i++) {
+            int pc = pcs[i];
+            recordInstruction(pc, opcodes[i]);
+            PC = pc + 1;
+            instructionOffset = cycles + extraCycles;
+            instructionCycles = blockCycles[i];
+            handlers[i].execute(this, memory);
+            cycles += blockCycles[i];
+            if (!block.valid || blockExit) {
+                break; // The block overwrote its own code, or an interrupt or DMA stall came up
+            }
+        }
+
+        cycles += extraCycles;
+        extraCycles = 0;
+        return cycles;
+    }
+
+    // Runs one pass of a spin loop (see IdleLoops). If the pass left every register and
+    // flag as it found them, every further pass would do the same until an interrupt or
+    // the caller's next sync, so the whole passes needed to reach `remaining` are charged
+    // in one step instead of being run.
+    private long runIdleLoop(DecodedBlock block, long remaining) {
+        long before = architecturalState();
+        int used = executeBlock(block);
+        if (used <= 0 || used >= remaining || architecturalState() != before) {
+            return used;
+        }
+        // Exact stops leave the pass that would cross the target to single-stepping
+        long passes = exactStops ? (remaining - used) / used : (remaining - used + used - 1) / used;
+        idleCyclesSkipped += passes * used;
+        return used + passes * used;
+    }
+
+    private long architecturalState() {
+        return A | (X << 8) | (Y << 16) | ((long) SP << 24) | ((long) getStatus() << 32)
+                | ((long) (PC & 0xFFFF) << 40);
+    }
+
+    // runUntil() normally stops after the block that reaches the target; with exact
+    // stops it ends at the first instruction boundary at or after it, like clock()
+    public void setExactStops(boolean exactStops) {
+        this.exactStops = exactStops;
+    }
+
+    public void setIdleSkipEnabled(boolean enabled) {
+        this.idleSkipEnabled = enabled;
+    }
+
+    // Cycles charged for spin-loop passes that were skipped rather than run
+    public long getIdleCyclesSkipped() {
+        return idleCyclesSkipped;
+    }
+
+    public void setBlockCacheEnabled(boolean enabled) {
+        this.blockCacheEnabled = enabled;
+    }
+
+    // Ahead-of-time compiled ROM code from StaticRecompiler.load(), or null to drop it
+    public void setPrecompiledBlocks(PrecompiledBlocks blocks) {
+        blockCache.setPrecompiled(blocks);
+    }
+
+    // Hot blocks are compiled to JVM classes in the background (needs a JDK at runtime)
+    public void setRecompilerEnabled(boolean enabled) {
+        this.recompilerEnabled = enabled;
+    }
+
+    public long getCycleCount() {
+        return totalCycles;
+    }
+
+    // Cycle at which the instruction now executing started (valid from I/O handlers);
+    // on the cycle-stepped core, the cycle of the bus access itself
+    public long getInstructionCycle() {
+        return totalCycles + instructionOffset;
+    }
+
+    // Cycle of the current instruction's last bus access, where a store writes. Both
+    // cores report the same cycle, so parity rules (the OAM DMA stall) charge them alike
+    public long getWriteCycle() {
+        return stepper != null ? totalCycles : totalCycles + instructionOffset + instructionCycles - 1;
+    }
+
+    // Fused handlers: the second instruction of the pair, at pc, starts `elapsed` cycles
+    // after the first and takes `cycles`; it is recorded and its I/O dated on its own
+    public void startSecondInstruction(int pc, int opcode, int elapsed, int cycles) {
+        recordInstruction(pc, opcode);
+        instructionOffset += elapsed;
+        instructionCycles = cycles;
+    }
+
+    // Compiled blocks date the instruction about to touch I/O: offset = cycles since block
+    // start, cycles = its base cycles
+    void markInstruction(int offset, int cycles) {
+        instructionOffset = offset + extraCycles;
+        instructionCycles = cycles;
+    }
+
+    // True if an NMI is pending or IRQ is asserted while not masked
+    boolean interruptReady() {
+        return (pendingEvents & NMI_PENDING) != 0
+                || ((pendingEvents & IRQ_LINES) != 0 && (status & FLAG_INTERRUPT) == 0);
+    }
+
+    // Interrupt sequence of the cycle-stepped core: consumes a pending NMI and returns
+    // its vector, otherwise returns the IRQ/BRK vector
+    int acknowledgeInterrupt() {
+        if ((pendingEvents & NMI_PENDING) != 0) {
+            pendingEvents &= ~NMI_PENDING;
+            return 0xFFFA;
+        }
+        return 0xFFFE;
+    }
+
+    // Registers as the instruction at pc starts, for the crash bundle
+    void recordInstruction(int pc, int opcode) {
+        history.record(pc, opcode, A, X, Y, SP, status, carryResult, zeroResult, overflowResult, negativeResult,
+                false);
+    }
+
+    // Compiled blocks keep A, X and Y in locals and pass them in. nzStale: the block skipped
+    // an earlier instruction's dead N/Z update, so this entry's N and Z may be out of date
+    void recordInstruction(int pc, int opcode, int a, int x, int y, boolean nzStale) {
+        history.record(pc, opcode, a, x, y, SP, status, carryResult, zeroResult, overflowResult, negativeResult,
+                nzStale);
+    }
+
+    public ExecutionHistory getHistory() {
+        return history;
+    }
+
+    // Adds a section to the crash bundle, read only when the bundle is written
+    public void addCrashSection(String tag, Supplier<byte[]> contents) {
+        CrashBundle.checkTag(tag);
+        crashSections.put(tag, contents);
+    }
+
+    public void setCrashBundlePath(Path path) {
+        this.crashBundlePath = path;
+    }
+
+    // Takes a pending NMI or unmasked IRQ; returns the cycles spent, or 0 if none was taken.
+    // The IRQ bits are left set: the source keeps the line asserted until it is acknowledged
+    private int pollInterrupts() {
         // Check NMI (non-maskable, always runs if requested)
-        if (nmiRequested) {
-            nmiRequested = false;
+        if ((pendingEvents & NMI_PENDING) != 0) {
+            pendingEvents &= ~NMI_PENDING;
             handleInterrupt(0xFFFA, false); // false = not BRK
             return 7;
         }
 
         // Check IRQ
-        if (irqRequested && !getFlag(FLAG_INTERRUPT)) {
-            irqRequested = false;
+        if ((pendingEvents & IRQ_LINES) != 0 && (status & FLAG_INTERRUPT) == 0) {
             handleInterrupt(0xFFFE, false);
             return 7;
         }
-        lastPC = PC;
-        if (PC == 0x0000) {
-            System.err.println("🚨 PC jumped to $0000 — likely invalid return or vector.");
-        }
+        return 0;
+    }
 
-        int opcode = memory.read(PC++) & 0xFF;
-        lastOpcode = opcode;
 
 
+    private int executeInstruction(int opcode) {
+        // Unmapped slots hold the illegal-opcode handler, so no null check is needed
+        instructionSet.get(opcode).execute(this, memory);
+        int cycles = instructionSet.getCycles(opcode) + extraCycles;
+        extraCycles = 0;
+        return cycles;
+    }
 
+    // Reads the byte at PC and advances PC
+    public int fetch() {
+        int pc = PC & 0xFFFF;
+        PC = pc + 1;
+        if (memory.pageIndex(pc) != fetchPage || memory.getMappingGeneration() != fetchGeneration) {
+            refreshFetchPage(pc);
+        }
+        byte[] data = fetchData;
+        return data != null ? data[fetchOffset + (pc & fetchMask)] & 0xFF : memory.read(pc);
+    }
 
-        return executeInstruction(opcode);
+    private void refreshFetchPage(int pc) {
+        int page = memory.pageIndex(pc);
+        fetchPage = page;
+        fetchGeneration = memory.getMappingGeneration();
+        fetchData = memory.getPageData(page);
+        fetchMask = memory.getPageMask(page);
+        fetchOffset = memory.getPageOffset(page);
     }
 
+    public void addCycles(int cycles) {
+        extraCycles += cycles;
+    }
 
+    // DMA: the CPU is halted for `cycles` after the current instruction
+    public void stall(int cycles) {
+        extraCycles += cycles;
+        blockExit = true;
+    }
 
-    private int executeInstruction(int opcode) {
-        Instruction instr = instructionSet.get(opcode);
+    // Compiled blocks: true if the instruction just run asked the block to stop (see blockExit)
+    boolean blockExitRequested() {
+        return blockExit;
+    }
 
-        if (instr != null) {
-            instr.execute(this, memory);
-            return instr.getCycles();
-        } else {
-            System.err.printf("❌ Illegal opcode: %02X at PC: %04X\n", opcode, PC - 1);
-            System.err.printf("🔙 Previous opcode: %02X at PC: %04X\n", lastOpcode, lastPC);
-            memory.dumpToBinaryFile("crash_dump.bin");
-            halted = true;
-            return 0;
+    // 1 if b (within 255 bytes of a) is on a different 256-byte page than a, else 0; branch-free
+    public static int pageCrossed(int a, int b) {
+        return ((a ^ b) >> 8) & 1;
+    }
+
+    public void haltOnIllegalOpcode() {
+        // The latest history entry is the illegal opcode itself
+        for (int age = 0; age < Math.min(2, history.size()); age++) {
+            long entry = history.get(age);
+            System.err.printf(age == 0 ? "❌ Illegal opcode: %02X at PC: %04X\n" : "🔙 Previous opcode: %02X at PC: %04X\n",
+                    ExecutionHistory.opcode(entry), ExecutionHistory.pc(entry));
+        }
+        writeCrashBundle();
+        halted = true;
+    }
+
+    private void writeCrashBundle() {
+        CrashBundle bundle = new CrashBundle();
+        bundle.add("CPU ", ByteBuffer.allocate(20)
+                .putShort((short) PC).put((byte) A).put((byte) X).put((byte) Y).put((byte) SP)
+                .put((byte) getStatus()).put((byte) getCore().ordinal())
+                .putLong(totalCycles).putInt(pendingEvents).array());
+        bundle.add("HIST", history.toBytes());
+        bundle.add("TEXT", history.format().getBytes(StandardCharsets.UTF_8));
+        bundle.add("MEM ", memory.snapshot(0x0000, 0x10000));
+        for (Map.Entry<String, Supplier<byte[]>> section : crashSections.entrySet()) {
+            bundle.add(section.getKey(), section.getValue().get());
+        }
+        try {
+            bundle.write(crashBundlePath);
+            System.err.println("💾 Crash bundle written to " + crashBundlePath);
+        } catch (IOException e) {
+            System.err.println("Failed to write crash bundle: " + e.getMessage());
         }
     }
 
@@ -134,7 +584,7 @@ public class CPU6502 {
         pushStack(returnPC & 0xFF, memory);
 
         // Push status register
-        int statusToPush = status | CPU6502.FLAG_UNUSED;
+        int statusToPush = getStatus() | CPU6502.FLAG_UNUSED;
         if (isBRK) {
             statusToPush |= CPU6502.FLAG_BREAK;
         } else {
@@ -146,33 +596,76 @@ public class CPU6502 {
         setFlag(FLAG_INTERRUPT, true);
 
         // Load new PC from vector
-        int newPC = memory.readWord(vectorAddr);
-        PC = newPC;
-
-        // Print the interrupt type and destination
-        String type = isBRK ? "BRK" : (vectorAddr == 0xFFFA ? "NMI" : "IRQ");
-       // System.out.printf("🚨 Interrupt triggered: %s → jumping to $%04X\n", type, newPC);
+        PC = memory.readWord(vectorAddr);
     }
 
 
     public boolean getFlag(int flag) {
-        return (status & flag) != 0;
+        switch (flag) {
+            case FLAG_CARRY:    return (carryResult & 0x100) != 0;
+            case FLAG_ZERO:     return (zeroResult & 0xFF) == 0;
+            case FLAG_OVERFLOW: return (overflowResult & 0x80) != 0;
+            case FLAG_NEGATIVE: return (negativeResult & 0x80) != 0;
+            default:            return (getStatus() & flag) != 0;
+        }
     }
 
     public void setFlag(int flag, boolean value) {
-        if (value) {
-            status |= flag;
-        } else {
-            status &= ~flag;
+        switch (flag) {
+            case FLAG_CARRY:    carryResult = value ? 0x100 : 0; break;
+            case FLAG_ZERO:     zeroResult = value ? 0 : 1; break;
+            case FLAG_OVERFLOW: overflowResult = value ? 0x80 : 0; break;
+            case FLAG_NEGATIVE: negativeResult = value ? 0x80 : 0; break;
+            default:            setStatus(value ? getStatus() | flag : getStatus() & ~flag); break;
         }
     }
 
+    // Materializes the full status byte from the lazily tracked flags
+    public int getStatus() {
+        return status
+                | ((carryResult >> 8) & FLAG_CARRY)
+                | ((zeroResult & 0xFF) == 0 ? FLAG_ZERO : 0)
+                | ((overflowResult >> 1) & FLAG_OVERFLOW)
+                | (negativeResult & FLAG_NEGATIVE);
+    }
+
+    public void setStatus(int value) {
+        status = value & (FLAG_INTERRUPT | FLAG_DECIMAL | FLAG_BREAK | FLAG_UNUSED);
+        carryResult = (value & FLAG_CARRY) << 8;
+        zeroResult = ~value & FLAG_ZERO;
+        overflowResult = (value & FLAG_OVERFLOW) << 1;
+        negativeResult = value & FLAG_NEGATIVE;
+    }
+
+    // Records a result for the N and Z flags
+    public void setNZ(int value) {
+        zeroResult = value;
+        negativeResult = value;
+    }
+
+    // CMP/CPX/CPY: C = register >= operand, N and Z from register - operand
+    public void compare(int register, int operand) {
+        int difference = register + (operand ^ 0xFF) + 1;
+        carryResult = difference;
+        setNZ(difference & 0xFF);
+    }
+
+    // ADC (binary mode; the 2A03 has no decimal mode)
+    public void addWithCarry(int operand) {
+        int a = A;
+        int sum = a + operand + ((carryResult >> 8) & 1);
+        carryResult = sum;
+        overflowResult = (a ^ sum) & (operand ^ sum);
+        A = sum & 0xFF;
+        setNZ(A);
+    }
+
+    public void subtractWithCarry(int operand) {
+        addWithCarry(operand ^ 0xFF);
+    }
+
     private String decodeOpcode(int opcode) {
-        Instruction instr = instructionSet.get(opcode);
-        if (instr == null) {
-            return "???";
-        }
-        return instr.getClass().getSimpleName();
+        return InstructionSet.getMnemonic(opcode);
     }
 
 
@@ -2,18 +2,64 @@ package cpu6502;
 
 public class ChrRomPage implements MemoryPage {
     private final byte[] data;
+    private final int offset; // start of the view within data
+    private final int mask;   // view size - 1
 
     public ChrRomPage(byte[] data) {
         this.data = data;
+        this.offset = 0;
+        this.mask = 0x3FF; // 1KB page
+    }
+
+    // A read-only view of one power-of-two sized bank of a CHR image (no copy)
+    public ChrRomPage(byte[] data, int offset, int length) {
+        if (offset < 0 || length <= 0 || (length & (length - 1)) != 0 || offset + length > data.length) {
+            throw new IllegalArgumentException("CHR view out of range: " + offset + "+" + length);
+        }
+        this.data = data;
+        this.offset = offset;
+        this.mask = length - 1;
+    }
+
+    @Override
+    public byte[] getData() {
+        return data.length >= offset + mask + 1 ? data : null;
+    }
+
+    @Override
+    public int getAddressMask() {
+        return mask;
+    }
+
+    @Override
+    public int getDataOffset() {
+        return offset;
     }
 
     @Override
     public int read(int addr) {
-        return data[addr & 0x3FF] & 0xFF; // 1KB page
+        return data[offset + (addr & mask)] & 0xFF;
     }
 
     @Override
     public void write(int addr, int value) {
         // Do nothing: CHR ROM is read-only
     }
+
+    @Override
+    public void readBlock(int addr, byte[] dest, int offset, int length) {
+        while (length > 0) {
+            int index = addr & mask;
+            int run = Math.min(length, mask + 1 - index);
+            System.arraycopy(data, this.offset + index, dest, offset, run);
+            addr += run;
+            offset += run;
+            length -= run;
+        }
+    }
+
+    @Override
+    public void writeBlock(int addr, byte[] src, int offset, int length) {
+        // Do nothing: CHR ROM is read-only
+    }
 }
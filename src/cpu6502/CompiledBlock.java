@@ -0,0 +1,8 @@
+package cpu6502;
+
+// A DecodedBlock translated to straight-line JVM code by the BlockCompiler.
+// run() executes the whole block, leaves PC at the next instruction and
+// returns the cycles used (penalties added through addCycles() come on top).
+public interface CompiledBlock {
+    int run(CPU6502 cpu, Memory memory, DecodedBlock block);
+}
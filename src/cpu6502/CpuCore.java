@@ -0,0 +1,7 @@
+package cpu6502;
+
+// Which execution core a CPU6502 runs, chosen at construction
+public enum CpuCore {
+    FAST,          // whole instructions, decoded blocks and compiled code
+    CYCLE_STEPPED, // one bus access per cycle (see CycleStepper); slower, for timing-sensitive ROMs
+}
@@ -0,0 +1,58 @@
+package cpu6502;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+// The file an illegal opcode leaves behind, assembled in memory and written with one
+// gathering FileChannel write. Layout, integers big-endian:
+//   "JNESCRSH" version:int
+//   per section: tag (4 ASCII characters) length:int data
+// CPU6502 writes
+//   CPU : PC:short A X Y SP P core:byte cycles:long pendingEvents:int
+//   HIST: ExecutionHistory entries, oldest first, 8 bytes each
+//   TEXT: the same history as text, "~" after P where N and Z may lag (compiled code)
+//   MEM : the CPU address space, I/O registers as $FF (Memory.snapshot)
+// and the machine adds its own through CPU6502.addCrashSection.
+final class CrashBundle {
+    static final int VERSION = 1;
+    private static final byte[] MAGIC = "JNESCRSH".getBytes(StandardCharsets.US_ASCII);
+
+    private final List<ByteBuffer> buffers = new ArrayList<>();
+    private long length = MAGIC.length + Integer.BYTES;
+
+    void add(String tag, byte[] data) {
+        checkTag(tag);
+        ByteBuffer header = ByteBuffer.allocate(4 + Integer.BYTES);
+        header.put(tag.getBytes(StandardCharsets.US_ASCII)).putInt(data.length).flip();
+        buffers.add(header);
+        buffers.add(ByteBuffer.wrap(data));
+        length += header.remaining() + data.length;
+    }
+
+    static void checkTag(String tag) {
+        if (tag == null || tag.length() != 4 || !StandardCharsets.US_ASCII.newEncoder().canEncode(tag)) {
+            throw new IllegalArgumentException("Crash section tags are 4 ASCII characters: " + tag);
+        }
+    }
+
+    void write(Path path) throws IOException {
+        ByteBuffer[] all = new ByteBuffer[buffers.size() + 1];
+        all[0] = ByteBuffer.allocate(MAGIC.length + Integer.BYTES).put(MAGIC).putInt(VERSION).flip();
+        for (int i = 0; i < buffers.size(); i++) {
+            all[i + 1] = buffers.get(i);
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long remaining = length;
+            while (remaining > 0) {
+                remaining -= channel.write(all);
+            }
+        }
+    }
+}
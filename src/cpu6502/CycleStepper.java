@@ -0,0 +1,415 @@
+package cpu6502;
+
+import instructions.composed.Addressing;
+import instructions.composed.Alu;
+
+// The cycle-stepped core (CpuCore.CYCLE_STEPPED). Each tick() performs exactly one bus
+// cycle of the current instruction, in the order the 6502 makes them: operand fetches,
+// the dummy reads of implied, indexed and stack instructions, the double write of
+// read-modify-write instructions and the seven-cycle interrupt sequence. A device
+// therefore sees every access on its own cycle, which the whole-instruction handlers
+// of the fast core cannot offer. Registers and flags are the CPU6502's own.
+//
+// Interrupts are polled as on the chip: the line state at the end of an instruction's
+// next-to-last cycle decides whether the interrupt sequence replaces the next opcode,
+// so an interrupt unmasked by CLI or PLP is taken one instruction later. The extra poll
+// of taken branches is not modeled. The opcodes missing from the InstructionSet table
+// (the JAMs and the unstable unofficial ones) halt the CPU as they do on the fast core.
+final class CycleStepper {
+    private final CPU6502 cpu;
+    private final Memory memory;
+
+    private int opcode;
+    private int op;            // Alu operation and Addressing mode from the InstructionSet table
+    private int mode;
+    private int cycle;         // cycle within the instruction; 0 is the opcode fetch
+    private int address;       // effective address (or branch target) being formed
+    private int pointer;       // zero-page pointer, JMP () pointer or interrupt vector
+    private int value;         // operand, or the value a read-modify-write is working on
+    private boolean crossed;   // indexing carried into the high byte
+    private boolean interrupt; // running the NMI/IRQ sequence rather than an opcode
+
+    // Interrupt readiness sampled at the end of the last two cycles
+    private boolean polledLast;
+    private boolean polledBefore;
+
+    CycleStepper(CPU6502 cpu, Memory memory) {
+        this.cpu = cpu;
+        this.memory = memory;
+    }
+
+    void reset() {
+        cycle = 0;
+        interrupt = false;
+        polledLast = polledBefore = false;
+    }
+
+    boolean atInstructionBoundary() {
+        return cycle == 0;
+    }
+
+    // Runs one cycle; returns true if it completed an instruction or interrupt sequence
+    boolean tick() {
+        boolean done = cycle == 0 ? fetchOpcode() : step();
+        polledBefore = polledLast;
+        polledLast = cpu.interruptReady();
+        cycle = done ? 0 : cycle + 1;
+        return done;
+    }
+
+    private boolean fetchOpcode() {
+        int pc = cpu.PC & 0xFFFF;
+        if (polledBefore) {
+            // The opcode is fetched and thrown away; BRK's sequence runs without the PC increment
+            read(pc);
+            interrupt = true;
+            opcode = 0x00;
+            op = Alu.BRK;
+            mode = Addressing.IMPLIED;
+            return false;
+        }
+        interrupt = false;
+        opcode = read(pc);
+        op = InstructionSet.operation(opcode);
+        mode = InstructionSet.mode(opcode);
+        cpu.PC = (pc + 1) & 0xFFFF;
+        cpu.recordInstruction(pc, opcode);
+        if (op < 0) {
+            cpu.haltOnIllegalOpcode();
+            return true;
+        }
+        return false;
+    }
+
+    private boolean step() {
+        if (op == Alu.BRANCH) {
+            return branch();
+        }
+        if (Alu.isControl(op)) {
+            return control();
+        }
+        switch (mode) {
+            case Addressing.IMPLIED:
+            case Addressing.ACCUMULATOR:
+                read(cpu.PC); // dummy read of the next byte
+                Alu.implied(cpu, op);
+                return true;
+            case Addressing.IMMEDIATE:
+                Alu.read(cpu, op, fetchOperand());
+                return true;
+            case Addressing.ZERO_PAGE:
+                if (cycle == 1) {
+                    address = fetchOperand();
+                    return false;
+                }
+                return access(cycle - 2);
+            case Addressing.ZERO_PAGE_X:
+            case Addressing.ZERO_PAGE_Y:
+                switch (cycle) {
+                    case 1:
+                        address = fetchOperand();
+                        return false;
+                    case 2:
+                        read(address); // read before indexing
+                        address = (address + (mode == Addressing.ZERO_PAGE_X ? cpu.X : cpu.Y)) & 0xFF;
+                        return false;
+                    default:
+                        return access(cycle - 3);
+                }
+            case Addressing.ABSOLUTE:
+                switch (cycle) {
+                    case 1:
+                        address = fetchOperand();
+                        return false;
+                    case 2:
+                        address |= fetchOperand() << 8;
+                        return false;
+                    default:
+                        return access(cycle - 3);
+                }
+            case Addressing.ABSOLUTE_X:
+            case Addressing.ABSOLUTE_Y:
+                switch (cycle) {
+                    case 1:
+                        address = fetchOperand();
+                        return false;
+                    case 2:
+                        index(fetchOperand(), mode == Addressing.ABSOLUTE_X ? cpu.X : cpu.Y);
+                        return false;
+                    case 3:
+                        return readUnfixed();
+                    default:
+                        return access(cycle - 4);
+                }
+            case Addressing.INDIRECT_X:
+                switch (cycle) {
+                    case 1:
+                        pointer = fetchOperand();
+                        return false;
+                    case 2:
+                        read(pointer); // read before indexing
+                        pointer = (pointer + cpu.X) & 0xFF;
+                        return false;
+                    case 3:
+                        address = read(pointer);
+                        return false;
+                    case 4:
+                        address |= read((pointer + 1) & 0xFF) << 8;
+                        return false;
+                    default:
+                        return access(cycle - 5);
+                }
+            default: // INDIRECT_Y
+                switch (cycle) {
+                    case 1:
+                        pointer = fetchOperand();
+                        return false;
+                    case 2:
+                        address = read(pointer);
+                        return false;
+                    case 3:
+                        index(read((pointer + 1) & 0xFF), cpu.Y);
+                        return false;
+                    case 4:
+                        return readUnfixed();
+                    default:
+                        return access(cycle - 5);
+                }
+        }
+    }
+
+    // Forms high:(low + index) without the carry; address still holds the low byte
+    private void index(int high, int index) {
+        int sum = address + index;
+        crossed = sum > 0xFF;
+        address = (high << 8) | (sum & 0xFF);
+    }
+
+    // The read indexed modes always make before the carry is applied. For a load that did
+    // not cross a page it is the real read and the instruction ends here
+    private boolean readUnfixed() {
+        int data = read(address);
+        if (crossed) {
+            address = (address + 0x100) & 0xFFFF;
+        } else if (!Alu.isStore(op) && !Alu.isReadModifyWrite(op)) {
+            Alu.read(cpu, op, data);
+            return true;
+        }
+        return false;
+    }
+
+    // The cycles that use the effective address: one read, one write, or for a
+    // read-modify-write the read, the write-back of the unmodified value and the real write
+    private boolean access(int step) {
+        if (Alu.isStore(op)) {
+            write(address, Alu.storeValue(cpu, op));
+            return true;
+        }
+        if (!Alu.isReadModifyWrite(op)) {
+            Alu.read(cpu, op, read(address));
+            return true;
+        }
+        switch (step) {
+            case 0:
+                value = read(address);
+                return false;
+            case 1:
+                write(address, value);
+                value = Alu.modify(cpu, op, value);
+                return false;
+            default:
+                write(address, value);
+                return true;
+        }
+    }
+
+    private boolean branch() {
+        switch (cycle) {
+            case 1: {
+                value = fetchOperand();
+                int flag;
+                switch (opcode >> 6) {
+                    case 0: flag = CPU6502.FLAG_NEGATIVE; break;
+                    case 1: flag = CPU6502.FLAG_OVERFLOW; break;
+                    case 2: flag = CPU6502.FLAG_CARRY; break;
+                    default: flag = CPU6502.FLAG_ZERO; break;
+                }
+                boolean taken = cpu.getFlag(flag) == ((opcode & 0x20) != 0);
+                return !taken;
+            }
+            case 2: {
+                int pc = cpu.PC;
+                read(pc);
+                address = (pc + (byte) value) & 0xFFFF;
+                cpu.PC = (pc & 0xFF00) | (address & 0xFF);
+                return (address & 0xFF00) == (pc & 0xFF00);
+            }
+            default:
+                read(cpu.PC); // read from the page the low byte landed on
+                cpu.PC = address;
+                return true;
+        }
+    }
+
+    private boolean control() {
+        switch (opcode) {
+            case 0x4C: // JMP abs
+                if (cycle == 1) {
+                    address = fetchOperand();
+                    return false;
+                }
+                cpu.PC = address | read(cpu.PC) << 8;
+                return true;
+            case 0x6C: // JMP (ind): the pointer's high byte is read without carry
+                switch (cycle) {
+                    case 1:
+                        pointer = fetchOperand();
+                        return false;
+                    case 2:
+                        pointer |= fetchOperand() << 8;
+                        return false;
+                    case 3:
+                        address = read(pointer);
+                        return false;
+                    default:
+                        cpu.PC = address | read((pointer & 0xFF00) | ((pointer + 1) & 0xFF)) << 8;
+                        return true;
+                }
+            case 0x20: // JSR
+                switch (cycle) {
+                    case 1:
+                        address = fetchOperand();
+                        return false;
+                    case 2:
+                        read(0x0100 | cpu.SP);
+                        return false;
+                    case 3:
+                        push(cpu.PC >> 8);
+                        return false;
+                    case 4:
+                        push(cpu.PC & 0xFF);
+                        return false;
+                    default:
+                        cpu.PC = address | read(cpu.PC) << 8;
+                        return true;
+                }
+            case 0x60: // RTS
+                switch (cycle) {
+                    case 1:
+                        read(cpu.PC);
+                        return false;
+                    case 2:
+                        read(0x0100 | cpu.SP);
+                        cpu.SP = (cpu.SP + 1) & 0xFF;
+                        return false;
+                    case 3:
+                        address = read(0x0100 | cpu.SP);
+                        cpu.SP = (cpu.SP + 1) & 0xFF;
+                        return false;
+                    case 4:
+                        cpu.PC = address | read(0x0100 | cpu.SP) << 8;
+                        return false;
+                    default:
+                        read(cpu.PC);
+                        cpu.PC = (cpu.PC + 1) & 0xFFFF;
+                        return true;
+                }
+            case 0x40: // RTI
+                switch (cycle) {
+                    case 1:
+                        read(cpu.PC);
+                        return false;
+                    case 2:
+                        read(0x0100 | cpu.SP);
+                        cpu.SP = (cpu.SP + 1) & 0xFF;
+                        return false;
+                    case 3:
+                        cpu.setStatus(read(0x0100 | cpu.SP) & ~CPU6502.FLAG_BREAK | CPU6502.FLAG_UNUSED);
+                        cpu.SP = (cpu.SP + 1) & 0xFF;
+                        return false;
+                    case 4:
+                        address = read(0x0100 | cpu.SP);
+                        cpu.SP = (cpu.SP + 1) & 0xFF;
+                        return false;
+                    default:
+                        cpu.PC = address | read(0x0100 | cpu.SP) << 8;
+                        return true;
+                }
+            case 0x48: // PHA
+            case 0x08: // PHP
+                if (cycle == 1) {
+                    read(cpu.PC);
+                    return false;
+                }
+                push(opcode == 0x48 ? cpu.A : cpu.getStatus() | CPU6502.FLAG_BREAK | CPU6502.FLAG_UNUSED);
+                return true;
+            case 0x68: // PLA
+            case 0x28: // PLP
+                switch (cycle) {
+                    case 1:
+                        read(cpu.PC);
+                        return false;
+                    case 2:
+                        read(0x0100 | cpu.SP);
+                        cpu.SP = (cpu.SP + 1) & 0xFF;
+                        return false;
+                    default:
+                        int pulled = read(0x0100 | cpu.SP);
+                        if (opcode == 0x68) {
+                            cpu.A = pulled;
+                            cpu.setNZ(pulled);
+                        } else {
+                            cpu.setStatus(pulled & ~CPU6502.FLAG_BREAK | CPU6502.FLAG_UNUSED);
+                        }
+                        return true;
+                }
+            default: // BRK, and NMI/IRQ through the same sequence
+                switch (cycle) {
+                    case 1:
+                        read(cpu.PC);
+                        if (!interrupt) {
+                            cpu.PC = (cpu.PC + 1) & 0xFFFF; // BRK skips its padding byte
+                        }
+                        return false;
+                    case 2:
+                        push(cpu.PC >> 8);
+                        return false;
+                    case 3:
+                        push(cpu.PC & 0xFF);
+                        return false;
+                    case 4:
+                        // The vector is chosen here, so an NMI can take over a BRK or IRQ
+                        pointer = cpu.acknowledgeInterrupt();
+                        push(cpu.getStatus() & ~CPU6502.FLAG_BREAK | CPU6502.FLAG_UNUSED
+                                | (interrupt ? 0 : CPU6502.FLAG_BREAK));
+                        return false;
+                    case 5:
+                        address = read(pointer);
+                        cpu.setFlag(CPU6502.FLAG_INTERRUPT, true);
+                        return false;
+                    default:
+                        cpu.PC = address | read(pointer + 1) << 8;
+                        return true;
+                }
+        }
+    }
+
+    private int fetchOperand() {
+        int data = read(cpu.PC);
+        cpu.PC = (cpu.PC + 1) & 0xFFFF;
+        return data;
+    }
+
+    private void push(int data) {
+        write(0x0100 | cpu.SP, data & 0xFF);
+        cpu.SP = (cpu.SP - 1) & 0xFF;
+    }
+
+    private int read(int addr) {
+        return memory.read(addr & 0xFFFF) & 0xFF;
+    }
+
+    private void write(int addr, int data) {
+        memory.write(addr & 0xFFFF, data);
+    }
+}
@@ -0,0 +1,93 @@
+package cpu6502;
+
+// A run of straight-line 6502 code decoded once and replayed from arrays.
+// The block ends at the first branch/jump/return/interrupt-flag change or
+// illegal opcode, or when it reaches MAX_INSTRUCTIONS.
+public class DecodedBlock {
+    public static final int MAX_INSTRUCTIONS = 32;
+
+    final int startPC;
+    final int endPC;          // first address after the block
+    final int count;
+    final int[] pcs;          // address of each instruction's opcode byte
+    final int[] opcodes;
+    final int[] operands;     // operand bytes as a little-endian value (0 for implied)
+    final int[] cycles;       // base cycle count of each instruction
+    final Instruction[] handlers;
+
+    // What executeBlock replays: the instructions above with common pairs fused into
+    // one handler (see Superinstructions); set once by the BlockCache after decoding
+    int steps;
+    int[] stepPcs;
+    int[] stepOpcodes;
+    int[] stepCycles;
+    Instruction[] stepHandlers;
+
+    // Mapping generations of the pages the block was decoded from
+    final int firstPage;
+    final int firstGeneration;
+    final int lastPage;
+    final int lastGeneration;
+
+    // True if both pages were ROM when decoded: only a remap can change the code
+    final boolean inRom;
+
+    // Upper bound on the cycles one run can take (base cycles plus every penalty)
+    final int maxCycles;
+
+    // A side-effect-free loop back to startPC (see IdleLoops)
+    final boolean idleLoop;
+
+    // Cleared when the code is overwritten; the cache then decodes it again
+    volatile boolean valid = true;
+
+    // Times the interpreter has run the block, and its compiled form once the
+    // BlockCompiler has produced one
+    int executions;
+    volatile CompiledBlock compiled;
+
+    DecodedBlock(int startPC, int endPC, int count, int[] pcs, int[] opcodes, int[] operands,
+                 int[] cycles, Instruction[] handlers, Memory memory) {
+        this.startPC = startPC;
+        this.endPC = endPC;
+        this.count = count;
+        this.pcs = pcs;
+        this.opcodes = opcodes;
+        this.operands = operands;
+        this.cycles = cycles;
+        this.handlers = handlers;
+        this.firstPage = memory.pageIndex(startPC);
+        this.firstGeneration = memory.getPageGeneration(firstPage);
+        this.lastPage = memory.pageIndex((endPC - 1) & 0xFFFF);
+        this.lastGeneration = memory.getPageGeneration(lastPage);
+        this.inRom = memory.isRom(startPC) && memory.isRom((endPC - 1) & 0xFFFF);
+        this.idleLoop = IdleLoops.isIdleLoop(this);
+        int sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += cycles[i] + 1; // page-cross penalty
+        }
+        this.maxCycles = sum + 1; // a taken branch adds one more
+    }
+
+    boolean isCurrent(Memory memory) {
+        return valid
+                && memory.getPageGeneration(firstPage) == firstGeneration
+                && memory.getPageGeneration(lastPage) == lastGeneration;
+    }
+
+    public int getStartPC() {
+        return startPC;
+    }
+
+    public int getEndPC() {
+        return endPC;
+    }
+
+    public int getInstructionCount() {
+        return count;
+    }
+
+    public boolean isCompiled() {
+        return compiled != null;
+    }
+}
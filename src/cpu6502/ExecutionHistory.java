@@ -0,0 +1,106 @@
+package cpu6502;
+
+import java.nio.ByteBuffer;
+
+// The last executed instructions, for the crash bundle. Each entry is one long,
+// PC:16 opcode:8 A:8 X:8 Y:8 SP:8 P:8 from the high bits down, taken as the
+// instruction starts. Recording stores the registers and the CPU's raw lazy-flag
+// inputs into a power-of-two ring that overwrites the oldest entry; P is only
+// composed when an entry is read. Entries from compiled code whose N and Z may lag
+// (the compiler drops dead flag updates) are marked, see isApproximate.
+public final class ExecutionHistory {
+    private static final int APPROXIMATE = 1 << 11; // in flags, above packFlags' bits
+
+    private final long[] entries; // PC, opcode, A, X, Y, SP; the P byte is left 0
+    private final int[] flags;    // see packFlags
+    private final int mask;
+    private long count = 0; // entries recorded since construction
+
+    public ExecutionHistory(int capacity) {
+        if (capacity <= 0 || (capacity & (capacity - 1)) != 0) {
+            throw new IllegalArgumentException("History capacity must be a power of two: " + capacity);
+        }
+        entries = new long[capacity];
+        flags = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    // status holds I, D, B and U; the next four arguments are CPU6502's lazy flag results
+    void record(int pc, int opcode, int a, int x, int y, int sp,
+                int status, int carryResult, int zeroResult, int overflowResult, int negativeResult,
+                boolean nzApproximate) {
+        int slot = (int) count++ & mask;
+        entries[slot] = (long) (pc & 0xFFFF) << 48 | (long) opcode << 40 | (long) a << 32
+                | ((x << 24 | y << 16 | sp << 8) & 0xFFFFFFFFL);
+        flags[slot] = packFlags(status, carryResult, zeroResult, overflowResult, negativeResult)
+                | (nzApproximate ? APPROXIMATE : 0);
+    }
+
+    // status:8, C at bit 8, V at bit 9, N at bit 10 and the Z result byte at bits 16-23
+    static int packFlags(int status, int carryResult, int zeroResult, int overflowResult, int negativeResult) {
+        return status | (carryResult & 0x100) | (overflowResult & 0x80) << 2 | (negativeResult & 0x80) << 3
+                | (zeroResult & 0xFF) << 16;
+    }
+
+    // The P byte packFlags stands for, as CPU6502.getStatus() would have returned it
+    static int status(int packed) {
+        return (packed & 0xFF)
+                | ((packed >>> 8) & CPU6502.FLAG_CARRY)
+                | ((packed >>> 16 & 0xFF) == 0 ? CPU6502.FLAG_ZERO : 0)
+                | ((packed >>> 3) & (CPU6502.FLAG_OVERFLOW | CPU6502.FLAG_NEGATIVE));
+    }
+
+    public int capacity() {
+        return entries.length;
+    }
+
+    // Entries currently held (at most capacity)
+    public int size() {
+        return (int) Math.min(count, entries.length);
+    }
+
+    // age 0 is the latest instruction, size() - 1 the oldest still held
+    public long get(int age) {
+        if (age < 0 || age >= size()) {
+            throw new IllegalArgumentException("No history entry " + age + " (" + size() + " held)");
+        }
+        int slot = (int) (count - 1 - age) & mask;
+        return entries[slot] | status(flags[slot]);
+    }
+
+    // Whether the N and Z bits of entry `age` may be out of date (compiled code)
+    public boolean isApproximate(int age) {
+        get(age); // range check
+        return (flags[(int) (count - 1 - age) & mask] & APPROXIMATE) != 0;
+    }
+
+    public static int pc(long entry) {
+        return (int) (entry >>> 48);
+    }
+
+    public static int opcode(long entry) {
+        return (int) (entry >>> 40) & 0xFF;
+    }
+
+    // Oldest first, 8 bytes per entry
+    byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(size() * Long.BYTES);
+        for (int age = size() - 1; age >= 0; age--) {
+            buffer.putLong(get(age));
+        }
+        return buffer.array();
+    }
+
+    // Oldest first, one instruction per line; "~" after P: N and Z may be out of date
+    String format() {
+        StringBuilder out = new StringBuilder();
+        for (int age = size() - 1; age >= 0; age--) {
+            long entry = get(age);
+            out.append(String.format("%04X  %02X %-3s  A=%02X X=%02X Y=%02X SP=%02X P=%02X%s%n",
+                    pc(entry), opcode(entry), InstructionSet.getMnemonic(opcode(entry)),
+                    (entry >>> 32) & 0xFF, (entry >>> 24) & 0xFF, (entry >>> 16) & 0xFF,
+                    (entry >>> 8) & 0xFF, entry & 0xFF, isApproximate(age) ? "~" : ""));
+        }
+        return out.toString();
+    }
+}
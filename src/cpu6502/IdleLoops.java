@@ -0,0 +1,75 @@
+package cpu6502;
+
+// Decode-time check for blocks that spin in place: a block whose last instruction
+// branches or jumps back to its own start, that writes nothing (no stores, no stack
+// use) and only reads RAM, ROM or the PPU status register. Such a loop can only
+// leave when an interrupt arrives or a register it reads changes, so once one pass
+// leaves the CPU state unchanged the CPU may charge further passes without running them.
+final class IdleLoops {
+    private static final boolean[] REGISTER_ONLY = new boolean[256];
+    private static final boolean[] ZERO_PAGE_READ = new boolean[256];
+    private static final boolean[] ABSOLUTE_READ = new boolean[256];
+    private static final boolean[] INDEXED_READ = new boolean[256];
+    static {
+        int[] registerOnly = {
+                0xA9, 0xA2, 0xA0, 0xC9, 0xE0, 0xC0, 0x09, 0x29,  // immediates
+                0x49, 0x69, 0xE9,                                // EOR, ADC, SBC #
+                0xAA, 0xA8, 0x8A, 0x98, 0xBA,                    // transfers
+                0xE8, 0xCA, 0xC8, 0x88,                          // INX, DEX, INY, DEY
+                0x0A, 0x4A, 0x2A, 0x6A,                          // shifts on A
+                0x18, 0x38, 0xD8, 0xF8, 0xB8, 0xEA               // CLC, SEC, CLD, SED, CLV, NOP
+        };
+        for (int opcode : registerOnly) REGISTER_ONLY[opcode] = true;
+        for (int opcode : new int[] {
+                0xA5, 0xA6, 0xA4, 0x05, 0x25, 0x45, 0x65, 0xE5, 0xC5, 0xE4, 0xC4, 0x24, // zp
+                0xB5, 0xB6, 0xB4, 0x15, 0x35, 0x55, 0x75, 0xF5, 0xD5                    // zp,X / zp,Y
+        }) {
+            ZERO_PAGE_READ[opcode] = true;
+        }
+        for (int opcode : new int[] {0xAD, 0xAE, 0xAC, 0x2C, 0x0D, 0x2D, 0x4D, 0x6D, 0xED, 0xCD, 0xEC, 0xCC}) {
+            ABSOLUTE_READ[opcode] = true;
+        }
+        for (int opcode : new int[] {
+                0xBD, 0xB9, 0xBE, 0xBC, 0x1D, 0x19, 0x3D, 0x39, 0x5D, 0x59,
+                0x7D, 0x79, 0xFD, 0xF9, 0xDD, 0xD9
+        }) {
+            INDEXED_READ[opcode] = true;
+        }
+    }
+
+    private IdleLoops() {
+    }
+
+    static boolean isIdleLoop(DecodedBlock block) {
+        int last = block.count - 1;
+        int opcode = block.opcodes[last];
+        int operand = block.operands[last];
+        boolean selfLoop;
+        if (opcode == 0x4C) {
+            selfLoop = operand == block.startPC;
+        } else if ((opcode & 0x1F) == 0x10) {
+            selfLoop = ((block.endPC + (byte) operand) & 0xFFFF) == block.startPC;
+        } else {
+            selfLoop = false;
+        }
+        if (!selfLoop) return false;
+
+        for (int i = 0; i < last; i++) {
+            if (!isQuiet(block.opcodes[i], block.operands[i])) return false;
+        }
+        return true;
+    }
+
+    private static boolean isQuiet(int opcode, int operand) {
+        if (REGISTER_ONLY[opcode] || ZERO_PAGE_READ[opcode]) return true;
+        if (ABSOLUTE_READ[opcode]) return isPlainMemory(operand) || (operand & 0xE007) == 0x2002;
+        // Any index keeps abs,X/abs,Y within base..base+$FF
+        if (INDEXED_READ[opcode]) return isPlainMemory(operand) && isPlainMemory(operand + 0xFF);
+        return false;
+    }
+
+    // RAM, cartridge RAM and ROM: reading has no side effects
+    private static boolean isPlainMemory(int address) {
+        return address < 0x2000 || (address >= 0x6000 && address <= 0xFFFF);
+    }
+}
@@ -7,17 +7,13 @@ public interface Instruction {
     int getCycles();
 
     public static void applyBranchIf(CPU6502 cpu, Memory memory, boolean condition) {
-        int offset = memory.read(cpu.PC++) & 0xFF;
+        int offset = cpu.fetch() & 0xFF;
 
         if (condition) {
             int signedOffset = (offset < 0x80) ? offset : offset - 0x100;
             int oldPC = cpu.PC;
             cpu.PC = (cpu.PC + signedOffset) & 0xFFFF;
-
-            // Optional: count page crossing
-            // if ((oldPC & 0xFF00) != (cpu.PC & 0xFF00)) {
-            //     cpu.incrementCycles(1);
-            // }
+            cpu.addCycles(1 + CPU6502.pageCrossed(oldPC, cpu.PC));
         }
     }
 
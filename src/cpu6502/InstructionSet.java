@@ -1,147 +1,280 @@
 package cpu6502;
 
-import instructions.compare.*;
-import instructions.loadstore.*;
 import instructions.branch.*;
-import instructions.logic.*;
-import instructions.math.*;
-import instructions.register.*;
-import instructions.status.*;
-import instructions.system.*;
-import instructions.stack.*;
+import instructions.composed.Addressing;
+import instructions.composed.Alu;
+import instructions.composed.ImpliedInstruction;
+import instructions.composed.ReadInstruction;
+import instructions.composed.ReadModifyWriteInstruction;
+import instructions.composed.StoreInstruction;
 import instructions.jump.*;
+import instructions.stack.*;
+import instructions.system.*;
+
+import java.util.Arrays;
 
-import java.util.HashMap;
-import java.util.Map;
 public class InstructionSet {
-    private final Map<Integer, Instruction> instructions = new HashMap<>();
+    // Shared handler for every opcode slot that has no implementation
+    private static final Instruction ILLEGAL = new IllegalOpcode();
+
+    // The opcode table: the operation (Alu) and addressing mode (Addressing) of each
+    // opcode, -1 for the rest. Handlers, sizes and cycles are derived from it.
+    private static final int[] OPERATIONS = new int[256];
+    private static final int[] MODES = new int[256];
+    private static final String[] MNEMONICS = new String[256];
+
+    static {
+        Arrays.fill(OPERATIONS, -1);
+        Arrays.fill(MODES, -1);
+
+        // The eight-mode group aaa bbb 01: ORA AND EOR ADC STA LDA CMP SBC
+        int[] group1 = {Alu.ORA, Alu.AND, Alu.EOR, Alu.ADC, Alu.STA, Alu.LDA, Alu.CMP, Alu.SBC};
+        String[] group1Names = {"ORA", "AND", "EOR", "ADC", "STA", "LDA", "CMP", "SBC"};
+        for (int aaa = 0; aaa < 8; aaa++) {
+            int base = aaa << 5 | 0x01;
+            define(group1Names[aaa], group1[aaa],
+                    base, Addressing.INDIRECT_X, base + 0x04, Addressing.ZERO_PAGE,
+                    base + 0x0C, Addressing.ABSOLUTE, base + 0x10, Addressing.INDIRECT_Y,
+                    base + 0x14, Addressing.ZERO_PAGE_X, base + 0x18, Addressing.ABSOLUTE_Y,
+                    base + 0x1C, Addressing.ABSOLUTE_X);
+            if (group1[aaa] != Alu.STA) {
+                define(group1Names[aaa], group1[aaa], base + 0x08, Addressing.IMMEDIATE);
+            }
+        }
+
+        // Shifts and rotates, aaa bbb 10 with the accumulator form at bbb = 010
+        int[] shifts = {Alu.ASL, Alu.ROL, Alu.LSR, Alu.ROR};
+        String[] shiftNames = {"ASL", "ROL", "LSR", "ROR"};
+        for (int aaa = 0; aaa < 4; aaa++) {
+            int base = aaa << 5 | 0x02;
+            define(shiftNames[aaa], shifts[aaa],
+                    base + 0x04, Addressing.ZERO_PAGE, base + 0x08, Addressing.ACCUMULATOR,
+                    base + 0x0C, Addressing.ABSOLUTE, base + 0x14, Addressing.ZERO_PAGE_X,
+                    base + 0x1C, Addressing.ABSOLUTE_X);
+        }
+        define("INC", Alu.INC, 0xE6, Addressing.ZERO_PAGE, 0xEE, Addressing.ABSOLUTE,
+                0xF6, Addressing.ZERO_PAGE_X, 0xFE, Addressing.ABSOLUTE_X);
+        define("DEC", Alu.DEC, 0xC6, Addressing.ZERO_PAGE, 0xCE, Addressing.ABSOLUTE,
+                0xD6, Addressing.ZERO_PAGE_X, 0xDE, Addressing.ABSOLUTE_X);
+
+        define("LDX", Alu.LDX, 0xA2, Addressing.IMMEDIATE, 0xA6, Addressing.ZERO_PAGE,
+                0xAE, Addressing.ABSOLUTE, 0xB6, Addressing.ZERO_PAGE_Y, 0xBE, Addressing.ABSOLUTE_Y);
+        define("LDY", Alu.LDY, 0xA0, Addressing.IMMEDIATE, 0xA4, Addressing.ZERO_PAGE,
+                0xAC, Addressing.ABSOLUTE, 0xB4, Addressing.ZERO_PAGE_X, 0xBC, Addressing.ABSOLUTE_X);
+        define("STX", Alu.STX, 0x86, Addressing.ZERO_PAGE, 0x8E, Addressing.ABSOLUTE,
+                0x96, Addressing.ZERO_PAGE_Y);
+        define("STY", Alu.STY, 0x84, Addressing.ZERO_PAGE, 0x8C, Addressing.ABSOLUTE,
+                0x94, Addressing.ZERO_PAGE_X);
+        define("CPX", Alu.CPX, 0xE0, Addressing.IMMEDIATE, 0xE4, Addressing.ZERO_PAGE,
+                0xEC, Addressing.ABSOLUTE);
+        define("CPY", Alu.CPY, 0xC0, Addressing.IMMEDIATE, 0xC4, Addressing.ZERO_PAGE,
+                0xCC, Addressing.ABSOLUTE);
+        define("BIT", Alu.BIT, 0x24, Addressing.ZERO_PAGE, 0x2C, Addressing.ABSOLUTE);
+
+        define("TAX", Alu.TAX, 0xAA, Addressing.IMPLIED);
+        define("TAY", Alu.TAY, 0xA8, Addressing.IMPLIED);
+        define("TXA", Alu.TXA, 0x8A, Addressing.IMPLIED);
+        define("TYA", Alu.TYA, 0x98, Addressing.IMPLIED);
+        define("TSX", Alu.TSX, 0xBA, Addressing.IMPLIED);
+        define("TXS", Alu.TXS, 0x9A, Addressing.IMPLIED);
+        define("INX", Alu.INX, 0xE8, Addressing.IMPLIED);
+        define("INY", Alu.INY, 0xC8, Addressing.IMPLIED);
+        define("DEX", Alu.DEX, 0xCA, Addressing.IMPLIED);
+        define("DEY", Alu.DEY, 0x88, Addressing.IMPLIED);
+        define("CLC", Alu.CLC, 0x18, Addressing.IMPLIED);
+        define("SEC", Alu.SEC, 0x38, Addressing.IMPLIED);
+        define("CLI", Alu.CLI, 0x58, Addressing.IMPLIED);
+        define("SEI", Alu.SEI, 0x78, Addressing.IMPLIED);
+        define("CLD", Alu.CLD, 0xD8, Addressing.IMPLIED);
+        define("SED", Alu.SED, 0xF8, Addressing.IMPLIED);
+        define("CLV", Alu.CLV, 0xB8, Addressing.IMPLIED);
+        define("NOP", Alu.NOP, 0xEA, Addressing.IMPLIED);
+
+        String[] branchNames = {"BPL", "BMI", "BVC", "BVS", "BCC", "BCS", "BNE", "BEQ"};
+        for (int i = 0; i < 8; i++) {
+            define(branchNames[i], Alu.BRANCH, 0x10 + (i << 5), Addressing.RELATIVE);
+        }
+        define("JMP", Alu.JMP, 0x4C, Addressing.ABSOLUTE, 0x6C, Addressing.INDIRECT);
+        define("JSR", Alu.JSR, 0x20, Addressing.ABSOLUTE);
+        define("RTS", Alu.RTS, 0x60, Addressing.IMPLIED);
+        define("RTI", Alu.RTI, 0x40, Addressing.IMPLIED);
+        define("BRK", Alu.BRK, 0x00, Addressing.IMPLIED);
+        define("PHA", Alu.PHA, 0x48, Addressing.IMPLIED);
+        define("PHP", Alu.PHP, 0x08, Addressing.IMPLIED);
+        define("PLA", Alu.PLA, 0x68, Addressing.IMPLIED);
+        define("PLP", Alu.PLP, 0x28, Addressing.IMPLIED);
+
+        // The stable unofficial opcodes. Group aaa bbb 11 pairs the read-modify-write of
+        // column 10 with the ALU operation of column 01, or SAX/LAX for aaa = 100/101
+        int[] group3 = {Alu.SLO, Alu.RLA, Alu.SRE, Alu.RRA, -1, -1, Alu.DCP, Alu.ISC};
+        String[] group3Names = {"SLO", "RLA", "SRE", "RRA", null, null, "DCP", "ISC"};
+        for (int aaa = 0; aaa < 8; aaa++) {
+            if (group3[aaa] < 0) {
+                continue;
+            }
+            int base = aaa << 5 | 0x03;
+            define(group3Names[aaa], group3[aaa],
+                    base, Addressing.INDIRECT_X, base + 0x04, Addressing.ZERO_PAGE,
+                    base + 0x0C, Addressing.ABSOLUTE, base + 0x10, Addressing.INDIRECT_Y,
+                    base + 0x14, Addressing.ZERO_PAGE_X, base + 0x18, Addressing.ABSOLUTE_Y,
+                    base + 0x1C, Addressing.ABSOLUTE_X);
+        }
+        define("SAX", Alu.SAX, 0x83, Addressing.INDIRECT_X, 0x87, Addressing.ZERO_PAGE,
+                0x8F, Addressing.ABSOLUTE, 0x97, Addressing.ZERO_PAGE_Y);
+        define("LAX", Alu.LAX, 0xA3, Addressing.INDIRECT_X, 0xA7, Addressing.ZERO_PAGE,
+                0xAF, Addressing.ABSOLUTE, 0xB3, Addressing.INDIRECT_Y,
+                0xB7, Addressing.ZERO_PAGE_Y, 0xBF, Addressing.ABSOLUTE_Y);
+        define("ANC", Alu.ANC, 0x0B, Addressing.IMMEDIATE, 0x2B, Addressing.IMMEDIATE);
+        define("ALR", Alu.ALR, 0x4B, Addressing.IMMEDIATE);
+        define("ARR", Alu.ARR, 0x6B, Addressing.IMMEDIATE);
+        define("AXS", Alu.AXS, 0xCB, Addressing.IMMEDIATE);
+        define("SBC", Alu.SBC, 0xEB, Addressing.IMMEDIATE);
+
+        // NOPs of every size; the ones with an operand still read it
+        for (int opcode : new int[] {0x1A, 0x3A, 0x5A, 0x7A, 0xDA, 0xFA}) {
+            define("NOP", Alu.NOP, opcode, Addressing.IMPLIED);
+        }
+        for (int opcode : new int[] {0x80, 0x82, 0x89, 0xC2, 0xE2}) {
+            define("NOP", Alu.NOP, opcode, Addressing.IMMEDIATE);
+        }
+        for (int opcode : new int[] {0x04, 0x44, 0x64}) {
+            define("NOP", Alu.NOP, opcode, Addressing.ZERO_PAGE);
+        }
+        for (int opcode : new int[] {0x14, 0x34, 0x54, 0x74, 0xD4, 0xF4}) {
+            define("NOP", Alu.NOP, opcode, Addressing.ZERO_PAGE_X);
+        }
+        define("NOP", Alu.NOP, 0x0C, Addressing.ABSOLUTE);
+        for (int opcode : new int[] {0x1C, 0x3C, 0x5C, 0x7C, 0xDC, 0xFC}) {
+            define("NOP", Alu.NOP, opcode, Addressing.ABSOLUTE_X);
+        }
+    }
+
+    private static void define(String mnemonic, int operation, int... opcodeModePairs) {
+        for (int i = 0; i < opcodeModePairs.length; i += 2) {
+            int opcode = opcodeModePairs[i];
+            OPERATIONS[opcode] = operation;
+            MODES[opcode] = opcodeModePairs[i + 1];
+            MNEMONICS[opcode] = mnemonic;
+        }
+    }
+
+    // Dense dispatch table indexed directly by the opcode byte
+    private final Instruction[] instructions = new Instruction[256];
+
+    // Base cycle count per opcode; page-cross and branch penalties are added by the instructions
+    private final int[] cycles = new int[256];
+
+    // Instruction length in bytes per opcode, used by the block decoder
+    private final int[] sizes = new int[256];
+
+    // Opcodes that end a decoded block: anything that changes PC other than by
+    // falling through, and anything that changes the interrupt-disable flag
+    private static final boolean[] BLOCK_END = new boolean[256];
+    static {
+        int[] blockEnds = {
+                0x10, 0x30, 0x50, 0x70, 0x90, 0xB0, 0xD0, 0xF0, // branches
+                0x4C, 0x6C, 0x20, 0x60, 0x40, 0x00,             // JMP, JSR, RTS, RTI, BRK
+                0x58, 0x78, 0x28                                // CLI, SEI, PLP
+        };
+        for (int opcode : blockEnds) {
+            BLOCK_END[opcode] = true;
+        }
+    }
 
     public InstructionSet() {
+        Arrays.fill(instructions, ILLEGAL);
+        Arrays.fill(sizes, 1);
         loadInstructions();
     }
 
     private void loadInstructions() {
+        for (int opcode = 0; opcode < 256; opcode++) {
+            if (OPERATIONS[opcode] >= 0) {
+                put(opcode, compose(opcode));
+            }
+        }
+    }
 
-        //Jump Instructions
-        instructions.put(0x4C, new JMPDirect());
-        instructions.put(0x6C, new JMPIndirect());
-
-        //Load Instructions
-        instructions.put(0xA9, new LDAImmediate());
-        instructions.put(0xBD, new LDAAbsoluteX());
-        instructions.put(0xAD, new LDAAbsolute());
-        instructions.put(0xB9, new LDAAbsoluteY());
-        instructions.put(0xA2, new LDXImmediate());
-        instructions.put(0xA6, new LDXZeroPage());
-        instructions.put(0xBE, new LDXAbsoluteY());
-        instructions.put(0xAE, new LDXAbsolute());
-        instructions.put(0xB6, new LDXZeroPageY());
-        instructions.put(0xA0, new LDYImmediate());
-        instructions.put(0xAC, new LDYAbsolute());
-        instructions.put(0xB4, new LDYZeroPageX());
-        instructions.put(0xA4, new LDYZeroPage());
-        instructions.put(0xBC, new LDYAbsoluteX());
-        instructions.put(0x9D, new STAAbsoluteX());
-        instructions.put(0x8D, new STAAbsolute());
-        instructions.put(0x85, new STAZeroPage());
-        instructions.put(0x86, new STXZeroPage());
-        instructions.put(0x91, new STAIndirectY());
-        instructions.put(0x99, new STAAbsoluteY());
-        instructions.put(0xB1, new LDAIndirectY());
-        //System instructions
-        instructions.put(0xEA, new NOP());
-        instructions.put(0x00, new BRK());
-
-        //Status instructions
-        instructions.put(0x18, new CLC());
-        instructions.put(0x78, new SEI());
-        instructions.put(0x58, new CLI());
-        instructions.put(0xD8, new CLD());
-        instructions.put(0xF8, new SED());
-        instructions.put(0x2C, new BITAbsolute());
-        instructions.put(0x38, new SEC());
-
-        //Math instructions
-        instructions.put(0xE0, new CPXImmediate());
-        instructions.put(0x7D, new ADCAbsoluteX());
-        instructions.put(0xF9, new SBCAbsoluteY());
-        instructions.put(0xFD, new SBCAbsoluteX());
-        instructions.put(0xE6, new INCZeroPage());
-
-        //Register instructions
-        instructions.put(0xE8, new INX());
-        instructions.put(0xCA, new DEX());
-        instructions.put(0x88, new DEY());
-        instructions.put(0xC8, new INY());
-        instructions.put(0xCE, new DECAbsolute());
-        //Stack instructions
-        instructions.put(0x20, new JSR());
-        instructions.put(0x60, new RTS());
-        instructions.put(0x40, new RTI());
-        instructions.put(0x9A, new TXS());
-        instructions.put(0xBA, new TSX());
-        instructions.put(0x8A, new TXA());
-        instructions.put(0xAA, new TAX());
-        instructions.put(0x48, new PHA());
-        instructions.put(0x68, new PLA());
-        instructions.put(0xA8, new TAY());
-
-        //Compare Instructions
-        instructions.put(0xC9, new CMPImmediate());
-        instructions.put(0xC0, new CPYImmediate());
-
-        //Logic Instructions
-        instructions.put(0x09, new ORAImmediate());
-        instructions.put(0x21, new ANDIndirectX());
-        instructions.put(0x29, new ANDImmediate());
-        instructions.put(0x4A, new LSRAccumulator());
-        instructions.put(0x05, new ORAZeroPage());
-        instructions.put(0x2A, new ROLAccumulator());
-        instructions.put(0x3D, new ANDAbsoluteX());
-        instructions.put(0x45, new EORZeroPage());
-        instructions.put(0x7E, new RORAbsoluteX());
-        instructions.put(0x6A, new RORAccumulator());
-        instructions.put(0x0A, new ASLAccumulator());
-        instructions.put(0x19, new ORAAbsoluteY());
-        instructions.put(0x1D, new ORAAbsoluteX());
-        instructions.put(0x1E, new ASLAbsoluteX());
-
-        //Branch Instructions
-        instructions.put(0x10, new BPL());
-        instructions.put(0x30, new BMI());
-        instructions.put(0x50, new BVC());
-        instructions.put(0x70, new BVS());
-        instructions.put(0x90, new BCC());
-        instructions.put(0xB0, new BCS());
-        instructions.put(0xD0, new BNE());
-        instructions.put(0xF0, new BEQ());
-
-
-        //NOP instructions (0xEA defined above)
-        NOP nop = new NOP();
-        instructions.put(0x1A, nop);
-        instructions.put(0x3A, nop);
-        instructions.put(0x5A, nop);
-        instructions.put(0x7A, nop);
-        instructions.put(0xDA, nop);
-        instructions.put(0xFA, nop);
-
-        //2 Byte NOPs
-        Instruction nop2 = new NOP2Byte();
-
-        instructions.put(0x82, nop2);
-        instructions.put(0x89, nop2);
-        instructions.put(0xC2, nop2);
-        instructions.put(0xE2, nop2);
-
-
-        //Illegal instructions
-        instructions.put(0x1C, new NOPAbsoluteX());
+    // Composes the handler of an opcode from its table entry
+    private static Instruction compose(int opcode) {
+        int operation = OPERATIONS[opcode];
+        int mode = MODES[opcode];
+        switch (operation) {
+            case Alu.BRANCH: return branch(opcode);
+            case Alu.JMP:    return mode == Addressing.INDIRECT ? new JMPIndirect() : new JMPDirect();
+            case Alu.JSR:    return new JSR();
+            case Alu.RTS:    return new RTS();
+            case Alu.RTI:    return new RTI();
+            case Alu.BRK:    return new BRK();
+            case Alu.PHA:    return new PHA();
+            case Alu.PHP:    return new PHP();
+            case Alu.PLA:    return new PLA();
+            case Alu.PLP:    return new PLP();
+            default:
+                break;
+        }
+        if (mode == Addressing.IMPLIED || mode == Addressing.ACCUMULATOR) {
+            return new ImpliedInstruction(operation);
+        }
+        if (Alu.isStore(operation)) {
+            return new StoreInstruction(operation, mode);
+        }
+        if (Alu.isReadModifyWrite(operation)) {
+            return new ReadModifyWriteInstruction(operation, mode);
+        }
+        return new ReadInstruction(operation, mode);
+    }
 
+    private static Instruction branch(int opcode) {
+        switch (opcode) {
+            case 0x10: return new BPL();
+            case 0x30: return new BMI();
+            case 0x50: return new BVC();
+            case 0x70: return new BVS();
+            case 0x90: return new BCC();
+            case 0xB0: return new BCS();
+            case 0xD0: return new BNE();
+            default:   return new BEQ();
+        }
+    }
 
+    private void put(int opcode, Instruction instruction) {
+        instructions[opcode] = instruction;
+        cycles[opcode] = instruction.getCycles();
+        sizes[opcode] = instruction.getSize();
     }
 
     public Instruction get(int opcode) {
-        return instructions.get(opcode);
+        return instructions[opcode & 0xFF];
+    }
+
+    public int getCycles(int opcode) {
+        return cycles[opcode & 0xFF];
+    }
+
+    public int getSize(int opcode) {
+        return sizes[opcode & 0xFF];
+    }
+
+    // -1 for the opcodes that halt the CPU (see Alu and Addressing)
+    static int operation(int opcode) {
+        return OPERATIONS[opcode & 0xFF];
+    }
+
+    static int mode(int opcode) {
+        return MODES[opcode & 0xFF];
+    }
+
+    public static String getMnemonic(int opcode) {
+        String mnemonic = MNEMONICS[opcode & 0xFF];
+        return mnemonic != null ? mnemonic : "???";
+    }
+
+    public boolean isLegal(int opcode) {
+        return instructions[opcode & 0xFF] != ILLEGAL;
+    }
+
+    public boolean endsBlock(int opcode) {
+        return BLOCK_END[opcode & 0xFF] || !isLegal(opcode);
     }
 }
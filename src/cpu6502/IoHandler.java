@@ -0,0 +1,8 @@
+package cpu6502;
+
+// A device's registers, registered with Memory.registerIo. Memory decodes the
+// address, so the handler only sees its own register number.
+public interface IoHandler {
+    int read(int register);
+    void write(int register, int value);
+}
@@ -0,0 +1,45 @@
+package cpu6502;
+
+// One page slot holding registered I/O. Each byte of the slot has its handler and
+// register number precomputed, so an access is two array loads and the handler
+// call. Bytes without a handler fall through to the page that was mapped there
+// before (or read as open bus when there was none).
+final class IoPage implements MemoryPage {
+    private final IoHandler[] handlers;
+    private final int[] registers;
+    private final int offsetMask;
+    private final MemoryPage underlying;
+
+    IoPage(int pageSize, MemoryPage underlying) {
+        this.handlers = new IoHandler[pageSize];
+        this.registers = new int[pageSize];
+        this.offsetMask = pageSize - 1;
+        this.underlying = underlying;
+    }
+
+    void register(int addr, IoHandler handler, int register) {
+        handlers[addr & offsetMask] = handler;
+        registers[addr & offsetMask] = register;
+    }
+
+    @Override
+    public int read(int addr) {
+        int offset = addr & offsetMask;
+        IoHandler handler = handlers[offset];
+        if (handler != null) {
+            return handler.read(registers[offset]) & 0xFF;
+        }
+        return underlying != null ? underlying.read(addr) : 0xFF;
+    }
+
+    @Override
+    public void write(int addr, int value) {
+        int offset = addr & offsetMask;
+        IoHandler handler = handlers[offset];
+        if (handler != null) {
+            handler.write(registers[offset], value & 0xFF);
+        } else if (underlying != null) {
+            underlying.write(addr, value);
+        }
+    }
+}
@@ -2,16 +2,60 @@ package cpu6502;
 
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.Arrays;
 
 public class Memory {
-    private final int[] ram = new int[65536];
-    private static final int PAGE_SIZE = 0x1000;
-    private static final int NUM_PAGES = 0x10000/PAGE_SIZE;
+    public static final int DEFAULT_PAGE_SIZE = 0x1000;
+    private static final int MIN_PAGE_SIZE = 0x100; // one code-invalidation region
 
-    private MemoryPage[] pageTable = new MemoryPage[NUM_PAGES];
+    // Slot size of this address space: a power of two, fixed per instance
+    private final int pageShift;
+    private final int pageSize;
+
+    private final MemoryPage[] pageTable;
+
+    // Direct-access view of each slot (see MemoryPage.getData): the common read is a
+    // shift and an array load; only pages without an array (I/O) are called
+    private final byte[][] readData;
+    private final byte[][] writeData;
+    private final int[] dataMasks;
+    private final int[] dataOffsets;
+
+    // Bumped whenever a page is remapped so decoded code from the old mapping is dropped
+    private final int[] pageGenerations;
+    private int mappingGeneration = 0; // bumped on any remap
+
+    // 256-byte regions holding decoded code that must be invalidated on write
+    private final boolean[] codeRegions = new boolean[256];
+    private BlockCache blockCache;
+
+    public Memory() {
+        this(DEFAULT_PAGE_SIZE);
+    }
+
+    // Smaller pages let 1KB CHR banks or small I/O windows get a slot of their own
+    // instead of sharing a 4KB slot with their neighbours
+    public Memory(int pageSize) {
+        if (pageSize < MIN_PAGE_SIZE || pageSize > 0x10000 || (pageSize & (pageSize - 1)) != 0) {
+            throw new IllegalArgumentException("Invalid page size: " + pageSize);
+        }
+        this.pageSize = pageSize;
+        this.pageShift = Integer.numberOfTrailingZeros(pageSize);
+        int pages = 0x10000 >> pageShift;
+        pageTable = new MemoryPage[pages];
+        readData = new byte[pages][];
+        writeData = new byte[pages][];
+        dataMasks = new int[pages];
+        dataOffsets = new int[pages];
+        pageGenerations = new int[pages];
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
 
     public void mapPage(int pageIndex, MemoryPage page) {
-        pageTable[pageIndex] = page;
+        setPage(pageIndex, page);
     }
 
     public void mapRange(int startAddr, int endAddr, MemoryPage page) {
@@ -19,63 +63,143 @@ public class Memory {
         if (startAddr < 0 || endAddr > 0xFFFF || startAddr > endAddr) {
             throw new IllegalArgumentException("Invalid address range: " + startAddr + " to " + endAddr);
         }
-        
-        int startPage = startAddr / PAGE_SIZE;
-        int endPage = endAddr / PAGE_SIZE;
-        
+
         // Map all pages that fall within the range
-        for (int pageIndex = startPage; pageIndex <= endPage; pageIndex++) {
-            if (pageIndex >= 0 && pageIndex < NUM_PAGES) {
-                pageTable[pageIndex] = page;
+        for (int pageIndex = startAddr >> pageShift; pageIndex <= endAddr >> pageShift; pageIndex++) {
+            setPage(pageIndex, page);
+        }
+    }
+
+    // Routes start..end to handler, which sees register (addr - start) & mirrorMask:
+    // 8 PPU registers mirrored through $2000-$3FFF are registerIo(0x2000, 0x3FFF, 0x07, ppu).
+    // Only the slots the range touches leave the array fast path.
+    public void registerIo(int startAddr, int endAddr, int mirrorMask, IoHandler handler) {
+        if (startAddr < 0 || endAddr > 0xFFFF || startAddr > endAddr) {
+            throw new IllegalArgumentException("Invalid address range: " + startAddr + " to " + endAddr);
+        }
+        for (int addr = startAddr; addr <= endAddr; addr++) {
+            int pageIndex = addr >>> pageShift;
+            if (!(pageTable[pageIndex] instanceof IoPage)) {
+                setPage(pageIndex, new IoPage(pageSize, pageTable[pageIndex]));
             }
+            ((IoPage) pageTable[pageIndex]).register(addr, handler, (addr - startAddr) & mirrorMask);
         }
     }
 
+    private void setPage(int pageIndex, MemoryPage page) {
+        if (pageTable[pageIndex] == page) {
+            return; // mappers re-apply whole bank layouts; keep the decoded code of unchanged slots
+        }
+        byte[] data = page != null ? page.getData() : null;
+        pageTable[pageIndex] = page;
+        readData[pageIndex] = data;
+        writeData[pageIndex] = data != null && page.isWritable() ? data : null;
+        dataMasks[pageIndex] = data != null ? page.getAddressMask() : 0;
+        dataOffsets[pageIndex] = data != null ? page.getDataOffset() : 0;
+        pageGenerations[pageIndex]++;
+        mappingGeneration++;
+    }
+
     public int read(int addr) {
-        // Ensure address is within valid range
-        if (addr < 0 || addr > 0xFFFF) {
-            throw new IllegalArgumentException("Invalid memory address: " + addr);
+        addr &= 0xFFFF;
+        int pageIndex = addr >>> pageShift;
+        byte[] data = readData[pageIndex];
+        if (data != null) {
+            return data[dataOffsets[pageIndex] + (addr & dataMasks[pageIndex])] & 0xFF;
         }
-        
-        int pageIndex = addr / PAGE_SIZE;
         MemoryPage page = pageTable[pageIndex];
         return (page != null) ? page.read(addr) : 0xFF; // <-- pass full addr
     }
 
-
-
-
     public void write(int addr, int value) {
-        // Ensure address is within valid range
-        if (addr < 0 || addr > 0xFFFF) {
-            throw new IllegalArgumentException("Invalid memory address: " + addr);
+        addr &= 0xFFFF;
+        int pageIndex = addr >>> pageShift;
+        byte[] data = writeData[pageIndex];
+        if (data != null) {
+            data[dataOffsets[pageIndex] + (addr & dataMasks[pageIndex])] = (byte) value;
+        } else {
+            MemoryPage page = pageTable[pageIndex];
+            if (page != null) {
+                page.write(addr, value); // full address: mappers decode it
+            }
         }
-        
-        MemoryPage page = pageTable[addr / PAGE_SIZE];
-        if (page != null) {
-            page.write(addr & (PAGE_SIZE - 1), value);
+        if (codeRegions[addr >> 8]) {
+            blockCache.invalidateRegion(addr >> 8);
         }
     }
-    public int readWord(int addr) {
-        // Ensure we don't read beyond memory boundaries
-        if (addr < 0 || addr > 0xFFFE) {
-            throw new IllegalArgumentException("Invalid word address: " + addr);
+
+    // Bulk transfers: split at page slot boundaries and handed to each page's
+    // readBlock/writeBlock (System.arraycopy for RAM/ROM, per byte for I/O).
+    // Addresses wrap at $FFFF like single-byte accesses.
+    public void readBlock(int addr, byte[] dest, int offset, int length) {
+        while (length > 0) {
+            addr &= 0xFFFF;
+            int run = Math.min(length, Math.min(pageSize - (addr & (pageSize - 1)), 0x10000 - addr));
+            MemoryPage page = pageTable[addr >>> pageShift];
+            if (page != null) {
+                page.readBlock(addr, dest, offset, run);
+            } else {
+                Arrays.fill(dest, offset, offset + run, (byte) 0xFF);
+            }
+            addr += run;
+            offset += run;
+            length -= run;
         }
-        
-        int lo = read(addr) & 0xFF;
-        int hi = read(addr + 1) & 0xFF;
+    }
+
+    public void writeBlock(int addr, byte[] src, int offset, int length) {
+        while (length > 0) {
+            addr &= 0xFFFF;
+            int run = Math.min(length, Math.min(pageSize - (addr & (pageSize - 1)), 0x10000 - addr));
+            MemoryPage page = pageTable[addr >>> pageShift];
+            if (page != null) {
+                page.writeBlock(addr, src, offset, run);
+            }
+            for (int region = addr >> 8; region <= (addr + run - 1) >> 8; region++) {
+                if (codeRegions[region]) {
+                    blockCache.invalidateRegion(region);
+                }
+            }
+            addr += run;
+            offset += run;
+            length -= run;
+        }
+    }
+
+    // Copies length bytes from this address space into another (or the same) one
+    public void copy(int srcAddr, Memory dest, int destAddr, int length) {
+        byte[] buffer = new byte[length];
+        readBlock(srcAddr, buffer, 0, length);
+        dest.writeBlock(destAddr, buffer, 0, length);
+    }
+
+    public int readWord(int addr) {
+        int lo = read(addr);
+        int hi = read(addr + 1);
         return (hi << 8) | lo;
     }
 
+    // A copy of start..start+length-1 that calls no handler: I/O slots read as $FF
+    public byte[] snapshot(int start, int length) {
+        byte[] copy = new byte[length];
+        for (int i = 0; i < length; i++) {
+            int addr = (start + i) & 0xFFFF;
+            int pageIndex = addr >>> pageShift;
+            byte[] data = readData[pageIndex];
+            copy[i] = data != null ? data[dataOffsets[pageIndex] + (addr & dataMasks[pageIndex])] : (byte) 0xFF;
+        }
+        return copy;
+    }
+
     public void dump() {
         dump(0x0000, 0xFFFF);
     }
 
     public void dumpToBinaryFile(int start, int end, String filename) {
         try (FileOutputStream fos = new FileOutputStream(filename)) {
-            for (int addr = start; addr <= end; addr++) {
-                fos.write(read(addr) & 0xFF);
-            }
+            byte[] bytes = new byte[end - start + 1];
+            readBlock(start, bytes, 0, bytes.length);
+            fos.write(bytes);
             System.out.println("cpu6502.Memory dumped to " + filename);
         } catch (IOException e) {
             System.err.println("Failed to dump memory: " + e.getMessage());
@@ -83,14 +207,7 @@ public class Memory {
     }
 
     public void dumpToBinaryFile(String filename) {
-        try (FileOutputStream fos = new FileOutputStream(filename)) {
-            for (int addr = 0x0000; addr <= 0xFFFF; addr++) {
-                fos.write(read(addr) & 0xFF);
-            }
-            System.out.println("cpu6502.Memory dumped to " + filename);
-        } catch (IOException e) {
-            System.err.println("Failed to dump memory: " + e.getMessage());
-        }
+        dumpToBinaryFile(0x0000, 0xFFFF, filename);
     }
 
 
@@ -100,6 +217,61 @@ public class Memory {
         }
     }
 
+    void attachBlockCache(BlockCache blockCache) {
+        this.blockCache = blockCache;
+    }
+
+    int pageIndex(int addr) {
+        return (addr & 0xFFFF) >>> pageShift;
+    }
+
+    int getPageGeneration(int pageIndex) {
+        return pageGenerations[pageIndex];
+    }
+
+    int getMappingGeneration() {
+        return mappingGeneration;
+    }
+
+    // Direct-access view of a slot for the CPU's fetch cache (null data: use read())
+    byte[] getPageData(int pageIndex) {
+        return readData[pageIndex];
+    }
+
+    int getPageMask(int pageIndex) {
+        return dataMasks[pageIndex];
+    }
+
+    int getPageOffset(int pageIndex) {
+        return dataOffsets[pageIndex];
+    }
+
+    boolean isRom(int addr) {
+        return pageTable[(addr & 0xFFFF) >>> pageShift] instanceof RomPage;
+    }
+
+    void setCodeRegion(int region, boolean watched) {
+        codeRegions[region] = watched;
+    }
+
+    // All 256-byte regions that address the same bytes as `region` (RAM mirrors)
+    int[] aliasRegions(int region) {
+        MemoryPage page = pageTable[(region << 8) >>> pageShift];
+        if (!(page instanceof RamPage) || ((RamPage) page).size() < 0x100) {
+            return new int[] {region};
+        }
+        int mask = ((RamPage) page).size() - 1;
+        int offset = (region << 8) & mask;
+        int[] aliases = new int[256];
+        int count = 0;
+        for (int r = 0; r < 256; r++) {
+            if (pageTable[(r << 8) >>> pageShift] == page && ((r << 8) & mask) == offset) {
+                aliases[count++] = r;
+            }
+        }
+        return Arrays.copyOf(aliases, count);
+    }
+
     public String getPageType(int pageIndex) {
         MemoryPage page = pageTable[pageIndex];
         return (page == null) ? "null" : page.getClass().getSimpleName();
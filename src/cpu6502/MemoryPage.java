@@ -3,4 +3,39 @@ package cpu6502;
 public interface MemoryPage {
     int read(int addr);
     void write(int addr, int value);
+
+    // Pages backed by a plain array expose it so Memory can index it directly:
+    // the byte for address addr is data[getDataOffset() + (addr & getAddressMask())].
+    // null (the default) sends every access through read()/write(), as I/O needs.
+    default byte[] getData() {
+        return null;
+    }
+
+    default int getAddressMask() {
+        return 0;
+    }
+
+    default int getDataOffset() {
+        return 0;
+    }
+
+    // Whether Memory may also store into getData() directly
+    default boolean isWritable() {
+        return false;
+    }
+
+    // Bulk access to length bytes starting at addr (a full address, as for read/write).
+    // Array-backed pages override these with System.arraycopy; I/O keeps the
+    // byte-at-a-time default so every register access still happens.
+    default void readBlock(int addr, byte[] dest, int offset, int length) {
+        for (int i = 0; i < length; i++) {
+            dest[offset + i] = (byte) read(addr + i);
+        }
+    }
+
+    default void writeBlock(int addr, byte[] src, int offset, int length) {
+        for (int i = 0; i < length; i++) {
+            write(addr + i, src[offset + i] & 0xFF);
+        }
+    }
 }
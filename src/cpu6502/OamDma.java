@@ -0,0 +1,33 @@
+package cpu6502;
+
+import java.util.function.Consumer;
+
+// Sprite DMA at $4014: writing page N copies $NN00-$NNFF to PPU OAM. The
+// hardware does 256 read/write pairs while the CPU is halted; here the page is
+// one readBlock and one handoff to the PPU, and the halt is charged as cycles.
+public class OamDma implements IoHandler {
+    public static final int STALL_CYCLES = 513; // +1 when the $4014 write lands on an odd CPU cycle
+
+    private final CPU6502 cpu;
+    private final Memory memory;
+    private final Consumer<byte[]> oam;
+    private final byte[] page = new byte[256];
+
+    public OamDma(CPU6502 cpu, Memory memory, Consumer<byte[]> oam) {
+        this.cpu = cpu;
+        this.memory = memory;
+        this.oam = oam;
+    }
+
+    @Override
+    public int read(int register) {
+        return 0xFF; // write-only
+    }
+
+    @Override
+    public void write(int register, int value) {
+        memory.readBlock((value & 0xFF) << 8, page, 0, page.length);
+        oam.accept(page);
+        cpu.stall(STALL_CYCLES + (int) (cpu.getWriteCycle() & 1));
+    }
+}
@@ -0,0 +1,55 @@
+package cpu6502;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Compiled blocks loaded from a StaticRecompiler cache. A block is only used if
+// the code bytes at its PC still match the ones it was compiled from, so banked
+// ROMs can hold several versions of the same address.
+public class PrecompiledBlocks {
+    private final Map<Integer, List<Entry>> blocks = new HashMap<>();
+    private int size = 0;
+
+    private static final class Entry {
+        final byte[] code;
+        final CompiledBlock compiled;
+
+        Entry(byte[] code, CompiledBlock compiled) {
+            this.code = code;
+            this.compiled = compiled;
+        }
+    }
+
+    void add(int pc, byte[] code, CompiledBlock compiled) {
+        blocks.computeIfAbsent(pc, k -> new ArrayList<>()).add(new Entry(code, compiled));
+        size++;
+    }
+
+    // The compiled form of a freshly decoded ROM block, or null
+    CompiledBlock find(DecodedBlock block, Memory memory) {
+        List<Entry> candidates = blocks.get(block.startPC);
+        if (candidates == null || !block.inRom) return null;
+        int length = (block.endPC - block.startPC) & 0xFFFF;
+        for (Entry entry : candidates) {
+            if (entry.code.length == length && matches(entry.code, block.startPC, memory)) {
+                return entry.compiled;
+            }
+        }
+        return null;
+    }
+
+    private static boolean matches(byte[] code, int pc, Memory memory) {
+        for (int i = 0; i < code.length; i++) {
+            if ((memory.read((pc + i) & 0xFFFF) & 0xFF) != (code[i] & 0xFF)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+}
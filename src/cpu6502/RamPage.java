@@ -11,6 +11,25 @@ public class RamPage implements MemoryPage {
         Arrays.fill(data, (byte) 0x00);
     }
 
+    public int size() {
+        return data.length;
+    }
+
+    @Override
+    public byte[] getData() {
+        return data;
+    }
+
+    @Override
+    public int getAddressMask() {
+        return data.length - 1;
+    }
+
+    @Override
+    public boolean isWritable() {
+        return true;
+    }
+
     @Override
     public int read(int addr) {
         return data[addr & (data.length - 1)] & 0xFF;
@@ -20,4 +39,29 @@ public class RamPage implements MemoryPage {
     public void write(int addr, int value) {
         data[addr & (data.length - 1)] = (byte) (value & 0xFF);
     }
+
+    // Copies in runs up to the end of the array, wrapping like the mirrors do
+    @Override
+    public void readBlock(int addr, byte[] dest, int offset, int length) {
+        while (length > 0) {
+            int index = addr & (data.length - 1);
+            int run = Math.min(length, data.length - index);
+            System.arraycopy(data, index, dest, offset, run);
+            addr += run;
+            offset += run;
+            length -= run;
+        }
+    }
+
+    @Override
+    public void writeBlock(int addr, byte[] src, int offset, int length) {
+        while (length > 0) {
+            int index = addr & (data.length - 1);
+            int run = Math.min(length, data.length - index);
+            System.arraycopy(src, offset, data, index, run);
+            addr += run;
+            offset += run;
+            length -= run;
+        }
+    }
 }
@@ -1,23 +1,56 @@
 package cpu6502;
 
+import java.util.Arrays;
+
 public class RomPage implements MemoryPage {
     private final byte[] data;
+    private final int offset; // start of the view within data
+    private final int length; // bytes in the view, mirrored across the mapped range
     private final int baseAddress;
 
     public RomPage(byte[] data, int baseAddress) {
+        this(data, 0, data.length, baseAddress);
+    }
+
+    // A read-only view of data[offset, offset + length) that shares the array (no copy),
+    // e.g. one 16KB bank of an iNES PRG image
+    public RomPage(byte[] data, int offset, int length, int baseAddress) {
+        if (offset < 0 || length < 0 || offset + length > data.length) {
+            throw new IllegalArgumentException("ROM view out of range: " + offset + "+" + length);
+        }
         this.data = data;
+        this.offset = offset;
+        this.length = length;
         this.baseAddress = baseAddress;
     }
 
+    // Direct access needs the modulo below to be a mask: a power-of-two size
+    // with the base address aligned to it (every NROM layout)
+    @Override
+    public byte[] getData() {
+        boolean maskable = length > 0 && (length & (length - 1)) == 0 && (baseAddress & (length - 1)) == 0;
+        return maskable ? data : null;
+    }
+
+    @Override
+    public int getAddressMask() {
+        return length - 1;
+    }
+
+    @Override
+    public int getDataOffset() {
+        return offset;
+    }
+
     @Override
     public int read(int addr) {
-        int offset = addr - baseAddress;
+        int index = addr - baseAddress;
         // Mirror into ROM size so a 16KB PRG can appear at $8000-$BFFF and $C000-$FFFF
-        if (data.length > 0) {
-            // Normalize offset to [0, data.length)
-            offset %= data.length;
-            if (offset < 0) offset += data.length;
-            return data[offset] & 0xFF;
+        if (length > 0) {
+            // Normalize index to [0, length)
+            index %= length;
+            if (index < 0) index += length;
+            return data[offset + index] & 0xFF;
         }
         return 0xFF;
     }
@@ -27,4 +60,21 @@ public class RomPage implements MemoryPage {
     public void write(int addr, int value) {
         // ROM: no writes allowed
     }
+
+    // Block writes keep the per-byte default: mapper registers live behind write()
+    @Override
+    public void readBlock(int addr, byte[] dest, int offset, int length) {
+        if (this.length == 0) {
+            Arrays.fill(dest, offset, offset + length, (byte) 0xFF);
+            return;
+        }
+        while (length > 0) {
+            int index = Math.floorMod(addr - baseAddress, this.length);
+            int run = Math.min(length, this.length - index);
+            System.arraycopy(data, this.offset + index, dest, offset, run);
+            addr += run;
+            offset += run;
+            length -= run;
+        }
+    }
 }
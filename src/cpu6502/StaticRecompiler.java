@@ -0,0 +1,191 @@
+package cpu6502;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+// Offline tier: walks the code reachable from the NMI/reset/IRQ vectors of a PRG
+// ROM, compiles every block it finds and stores the classes in
+// <cacheRoot>/<CRC32>-v<version>/. load() turns that directory back into
+// PrecompiledBlocks at startup. Code that was not discovered (jump tables,
+// RAM code) is interpreted and can still be picked up by the BlockCompiler.
+public final class StaticRecompiler {
+    public static final String DEFAULT_CACHE_DIR = "block_cache";
+    private static final String INDEX_FILE = "blocks.idx";
+    private static final int BANK_SIZE = 0x4000;
+    private static final int SOURCES_PER_RUN = 500;
+
+    private StaticRecompiler() {
+    }
+
+    public static File cacheDirectory(File cacheRoot, byte[] prgRom) {
+        CRC32 crc = new CRC32();
+        crc.update(prgRom);
+        return new File(cacheRoot, String.format("%08X-v%d", crc.getValue(), BlockSourceGenerator.VERSION));
+    }
+
+    // Discovers and compiles the ROM's code; returns the number of blocks written
+    public static int compile(byte[] prgRom, File cacheRoot) throws IOException {
+        JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+        if (javac == null) {
+            throw new IOException("No Java compiler available, run with a JDK");
+        }
+
+        // "PC CODE" (hex) -> block; the same PC can hold different code in different banks
+        Map<String, DecodedBlock> found = new LinkedHashMap<>();
+        for (Memory memory : bankConfigurations(prgRom)) {
+            discover(memory, found);
+        }
+
+        File dir = cacheDirectory(cacheRoot, prgRom);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+
+        List<String> index = new ArrayList<>();
+        Map<String, String> sources = new LinkedHashMap<>();
+        int classId = 0;
+        for (Map.Entry<String, DecodedBlock> entry : found.entrySet()) {
+            String className = String.format("Block%04X_%d", entry.getValue().startPC, classId++);
+            index.add(className + " " + entry.getKey());
+            // No ROM folding: the same bytes may run against other banks
+            sources.put(className, BlockSourceGenerator.generate(className, entry.getValue(), null));
+            if (sources.size() == SOURCES_PER_RUN) {
+                writeClasses(javac, sources, dir);
+                sources.clear();
+            }
+        }
+        writeClasses(javac, sources, dir);
+
+        Files.write(new File(dir, INDEX_FILE).toPath(), index, StandardCharsets.UTF_8);
+        return index.size();
+    }
+
+    // Loads the cache for this ROM, or returns null if there is none or it cannot be used
+    public static PrecompiledBlocks load(byte[] prgRom, File cacheRoot) {
+        File dir = cacheDirectory(cacheRoot, prgRom);
+        File indexFile = new File(dir, INDEX_FILE);
+        if (!indexFile.isFile()) {
+            return null;
+        }
+
+        PrecompiledBlocks blocks = new PrecompiledBlocks();
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            for (String line : Files.readAllLines(indexFile.toPath(), StandardCharsets.UTF_8)) {
+                String[] fields = line.trim().split(" ");
+                if (fields.length != 3) continue;
+                byte[] classBytes = Files.readAllBytes(new File(dir, fields[0] + ".class").toPath());
+                blocks.add(Integer.parseInt(fields[1], 16), fromHex(fields[2]),
+                        BlockCompiler.define(lookup, classBytes));
+            }
+        } catch (Throwable e) {
+            System.err.println("⚠️ Ignoring block cache " + dir + ": " + e);
+            return null;
+        }
+        return blocks;
+    }
+
+    private static void writeClasses(JavaCompiler javac, Map<String, String> sources, File dir) throws IOException {
+        if (sources.isEmpty()) return;
+        Map<String, byte[]> classes;
+        try {
+            classes = BlockCompiler.compileSources(javac, sources);
+        } catch (IllegalStateException e) {
+            throw new IOException("Compiling blocks failed: " + e.getMessage());
+        }
+        for (Map.Entry<String, byte[]> entry : classes.entrySet()) {
+            String simpleName = entry.getKey().substring(BlockCompiler.PACKAGE.length());
+            Files.write(new File(dir, simpleName + ".class").toPath(), entry.getValue());
+        }
+    }
+
+    // NROM images map as they are; larger ones are walked once per 16KB bank at $8000
+    // with the last bank fixed at $C000, the layout most bank-switching boards boot with
+    private static List<Memory> bankConfigurations(byte[] prgRom) {
+        List<Memory> configurations = new ArrayList<>();
+        if (prgRom.length <= 2 * BANK_SIZE) {
+            Memory memory = new Memory();
+            memory.mapRange(0x8000, 0xFFFF, new RomPage(prgRom, 0x8000));
+            configurations.add(memory);
+            return configurations;
+        }
+
+        RomPage lastBank = new RomPage(prgRom, prgRom.length - BANK_SIZE, BANK_SIZE, 0xC000);
+        for (int bank = 0; bank + BANK_SIZE <= prgRom.length; bank += BANK_SIZE) {
+            Memory memory = new Memory();
+            memory.mapRange(0x8000, 0xBFFF, new RomPage(prgRom, bank, BANK_SIZE, 0x8000));
+            memory.mapRange(0xC000, 0xFFFF, lastBank);
+            configurations.add(memory);
+        }
+        return configurations;
+    }
+
+    // Follows fall-through, branch, JMP and JSR edges from the vectors
+    private static void discover(Memory memory, Map<String, DecodedBlock> found) {
+        BlockCache cache = new BlockCache(memory, new InstructionSet());
+        Deque<Integer> pending = new ArrayDeque<>();
+        pending.push(memory.readWord(0xFFFA));
+        pending.push(memory.readWord(0xFFFC));
+        pending.push(memory.readWord(0xFFFE));
+        Set<Integer> visited = new HashSet<>();
+
+        while (!pending.isEmpty()) {
+            int pc = pending.pop();
+            if (pc < 0x8000 || !visited.add(pc)) continue;
+
+            DecodedBlock block = cache.get(pc);
+            if (!BlockSourceGenerator.canCompile(block)) continue; // ran into data
+            found.putIfAbsent(String.format("%04X %s", pc, toHex(block, memory)), block);
+
+            int opcode = block.opcodes[block.count - 1];
+            int operand = block.operands[block.count - 1];
+            switch (opcode) {
+                case 0x4C: // JMP
+                    pending.push(operand);
+                    break;
+                case 0x20: // JSR
+                    pending.push(operand);
+                    pending.push(block.endPC);
+                    break;
+                case 0x6C: case 0x60: case 0x40: case 0x00:
+                    break; // JMP (ind), RTS, RTI, BRK: target not known statically
+                default:
+                    if ((opcode & 0x1F) == 0x10) { // branch
+                        pending.push((block.endPC + (byte) operand) & 0xFFFF);
+                    }
+                    pending.push(block.endPC);
+                    break;
+            }
+        }
+    }
+
+    private static String toHex(DecodedBlock block, Memory memory) {
+        StringBuilder hex = new StringBuilder();
+        for (int pc = block.startPC; pc != block.endPC; pc = (pc + 1) & 0xFFFF) {
+            hex.append(String.format("%02X", memory.read(pc) & 0xFF));
+        }
+        return hex.toString();
+    }
+
+    private static byte[] fromHex(String hex) {
+        byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) Integer.parseInt(hex.substring(2 * i, 2 * i + 2), 16);
+        }
+        return bytes;
+    }
+}
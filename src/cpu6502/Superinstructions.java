@@ -0,0 +1,71 @@
+package cpu6502;
+
+import instructions.fused.CompareBranch;
+import instructions.fused.DecrementBranch;
+import instructions.fused.IncrementBranch;
+import instructions.fused.LoadStore;
+
+// Decode-time fusion of the instruction pairs games loop on most: LDA/STA copies,
+// DEX/BNE and DEY/BNE countdowns, INC zp/BNE counters and CMP #/BEQ. Fills the
+// block's replay steps; the per-instruction arrays stay as decoded for the compilers.
+final class Superinstructions {
+    private static final int BNE = 0xD0;
+    private static final int BEQ = 0xF0;
+
+    private Superinstructions() {
+    }
+
+    static void apply(DecodedBlock block) {
+        int[] stepPcs = new int[block.count];
+        int[] stepOpcodes = new int[block.count];
+        int[] stepCycles = new int[block.count];
+        Instruction[] stepHandlers = new Instruction[block.count];
+
+        int steps = 0;
+        for (int i = 0; i < block.count; i++) {
+            Instruction fused = i + 1 < block.count ? fuse(block, i) : null;
+            stepPcs[steps] = block.pcs[i];
+            stepOpcodes[steps] = block.opcodes[i];
+            if (fused != null) {
+                stepCycles[steps] = block.cycles[i] + block.cycles[i + 1];
+                stepHandlers[steps] = fused;
+                i++;
+            } else {
+                stepCycles[steps] = block.cycles[i];
+                stepHandlers[steps] = block.handlers[i];
+            }
+            steps++;
+        }
+
+        block.steps = steps;
+        block.stepPcs = stepPcs;
+        block.stepOpcodes = stepOpcodes;
+        block.stepCycles = stepCycles;
+        block.stepHandlers = stepHandlers;
+    }
+
+    // A fused handler for instructions i and i + 1, or null
+    private static Instruction fuse(DecodedBlock block, int i) {
+        int first = block.opcodes[i];
+        int second = block.opcodes[i + 1];
+        int nextPC = i + 2 < block.count ? block.pcs[i + 2] : block.endPC;
+        int target = (nextPC + (byte) block.operands[i + 1]) & 0xFFFF;
+        Instruction a = block.handlers[i];
+        Instruction b = block.handlers[i + 1];
+
+        if (LoadStore.canFuse(first, second)) {
+            return new LoadStore(a, first, block.operands[i], b, second, block.operands[i + 1], nextPC);
+        }
+        if (second == BNE && (first == 0xCA || first == 0x88)) { // DEX, DEY
+            return new DecrementBranch(a, b, first == 0xCA, nextPC, target);
+        }
+        // INC could overwrite the BNE in RAM code, which must then be decoded again
+        if (second == BNE && first == 0xE6 && block.inRom) {
+            return new IncrementBranch(a, b, block.operands[i], nextPC, target);
+        }
+        if (second == BEQ && first == 0xC9) {
+            return new CompareBranch(a, b, block.operands[i], nextPC, target);
+        }
+        return null;
+    }
+}
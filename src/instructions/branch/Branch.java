@@ -5,10 +5,14 @@ import cpu6502.*;
 public abstract class Branch implements Instruction {
     @Override
     public void execute(CPU6502 cpu, Memory memory) {
-        int offset = memory.read(cpu.PC++) & 0xFF;
+        int offset = cpu.fetch() & 0xFF;
         if (shouldBranch(cpu)) {
             int signedOffset = (offset < 0x80) ? offset : offset - 0x100;
+            int oldPC = cpu.PC;
             cpu.PC = (cpu.PC + signedOffset) & 0xFFFF;
+
+            // +1 for a taken branch, +1 more if it lands on another page
+            cpu.addCycles(1 + CPU6502.pageCrossed(oldPC, cpu.PC));
         }
     }
 
@@ -19,7 +23,7 @@ public abstract class Branch implements Instruction {
 
     @Override
     public int getCycles() {
-        return 2;
+        return 2; // +1 if taken, +2 if taken to another page
     }
 
     // Subclasses implement this to define the condition
@@ -0,0 +1,91 @@
+package instructions.composed;
+
+import cpu6502.CPU6502;
+import cpu6502.Memory;
+
+// The 6502 addressing modes: instruction size, base cycle counts and, for the fast
+// core, effective-address resolution in one call
+public final class Addressing {
+    public static final int IMPLIED = 0, ACCUMULATOR = 1, IMMEDIATE = 2, ZERO_PAGE = 3,
+            ZERO_PAGE_X = 4, ZERO_PAGE_Y = 5, ABSOLUTE = 6, ABSOLUTE_X = 7, ABSOLUTE_Y = 8,
+            INDIRECT_X = 9, INDIRECT_Y = 10, RELATIVE = 11, INDIRECT = 12;
+
+    // Base cycles per mode for reads, writes and read-modify-writes (0: not a valid combination)
+    private static final int[] READ_CYCLES  = {2, 2, 2, 3, 4, 4, 4, 4, 4, 6, 5, 2, 0};
+    private static final int[] WRITE_CYCLES = {0, 0, 0, 3, 4, 4, 4, 5, 5, 6, 6, 0, 0};
+    private static final int[] RMW_CYCLES   = {0, 2, 0, 5, 6, 0, 6, 7, 7, 8, 8, 0, 0};
+
+    private Addressing() {
+    }
+
+    public static int size(int mode) {
+        switch (mode) {
+            case IMPLIED:
+            case ACCUMULATOR:
+                return 1;
+            case ABSOLUTE:
+            case ABSOLUTE_X:
+            case ABSOLUTE_Y:
+            case INDIRECT:
+                return 3;
+            default:
+                return 2;
+        }
+    }
+
+    public static int readCycles(int mode) {
+        return READ_CYCLES[mode];
+    }
+
+    public static int writeCycles(int mode) {
+        return WRITE_CYCLES[mode];
+    }
+
+    public static int readModifyWriteCycles(int mode) {
+        return RMW_CYCLES[mode];
+    }
+
+    // Fetches the operand bytes and returns the effective address. With pageCrossPenalty,
+    // abs,X / abs,Y / (zp),Y charge a cycle when indexing crosses a page (reads only:
+    // stores and read-modify-writes always take it and count it in their base cycles)
+    public static int address(CPU6502 cpu, Memory memory, int mode, boolean pageCrossPenalty) {
+        switch (mode) {
+            case ZERO_PAGE:
+                return cpu.fetch();
+            case ZERO_PAGE_X:
+                return (cpu.fetch() + cpu.X) & 0xFF;
+            case ZERO_PAGE_Y:
+                return (cpu.fetch() + cpu.Y) & 0xFF;
+            case ABSOLUTE:
+                return fetchWord(cpu);
+            case ABSOLUTE_X:
+                return indexed(cpu, fetchWord(cpu), cpu.X, pageCrossPenalty);
+            case ABSOLUTE_Y:
+                return indexed(cpu, fetchWord(cpu), cpu.Y, pageCrossPenalty);
+            case INDIRECT_X:
+                return pointer(memory, (cpu.fetch() + cpu.X) & 0xFF);
+            case INDIRECT_Y:
+                return indexed(cpu, pointer(memory, cpu.fetch()), cpu.Y, pageCrossPenalty);
+            default:
+                throw new IllegalArgumentException("No effective address for addressing mode " + mode);
+        }
+    }
+
+    private static int fetchWord(CPU6502 cpu) {
+        int low = cpu.fetch();
+        return low | (cpu.fetch() << 8);
+    }
+
+    private static int indexed(CPU6502 cpu, int base, int index, boolean pageCrossPenalty) {
+        int address = (base + index) & 0xFFFF;
+        if (pageCrossPenalty) {
+            cpu.addCycles(CPU6502.pageCrossed(base, address));
+        }
+        return address;
+    }
+
+    // Little-endian pointer in zero page; the high byte wraps within page 0
+    private static int pointer(Memory memory, int zp) {
+        return (memory.read(zp) & 0xFF) | ((memory.read((zp + 1) & 0xFF) & 0xFF) << 8);
+    }
+}
@@ -0,0 +1,157 @@
+package instructions.composed;
+
+import cpu6502.CPU6502;
+
+// The operations of the instruction set, shared by the composed handlers and the
+// cycle-stepped core. Each opcode is one operation applied through one addressing
+// mode; the control operations (branches, jumps, stack, BRK) have their own handler
+// classes and are listed here only so the opcode table can name them. The stable
+// unofficial opcodes are operations of their own, built from the official ones.
+public final class Alu {
+    // Reads: the operand is a value
+    public static final int LDA = 0, LDX = 1, LDY = 2, ADC = 3, SBC = 4, AND = 5, ORA = 6, EOR = 7,
+            CMP = 8, CPX = 9, CPY = 10, BIT = 11, NOP = 12;
+    // Unofficial reads: LAX loads A and X, the rest are immediate-only combinations
+    public static final int LAX = 13, ANC = 14, ALR = 15, ARR = 16, AXS = 17;
+    // Stores: the operand is an address (SAX stores A & X)
+    public static final int STA = 18, STX = 19, STY = 20, SAX = 21;
+    // Read-modify-writes, on memory or on A
+    public static final int ASL = 22, LSR = 23, ROL = 24, ROR = 25, INC = 26, DEC = 27;
+    // Unofficial read-modify-writes that feed their result to a read operation
+    public static final int SLO = 28, RLA = 29, SRE = 30, RRA = 31, DCP = 32, ISC = 33;
+    // Implied register and flag operations (implied NOP is NOP above)
+    public static final int TAX = 34, TAY = 35, TXA = 36, TYA = 37, TSX = 38, TXS = 39,
+            INX = 40, INY = 41, DEX = 42, DEY = 43, CLC = 44, SEC = 45, CLI = 46, SEI = 47,
+            CLD = 48, SED = 49, CLV = 50;
+    // Control flow and stack
+    public static final int BRANCH = 51, JMP = 52, JSR = 53, RTS = 54, RTI = 55, BRK = 56,
+            PHA = 57, PHP = 58, PLA = 59, PLP = 60;
+
+    private Alu() {
+    }
+
+    public static boolean isStore(int operation) {
+        return operation >= STA && operation <= SAX;
+    }
+
+    public static boolean isReadModifyWrite(int operation) {
+        return operation >= ASL && operation <= ISC;
+    }
+
+    public static boolean isControl(int operation) {
+        return operation >= BRANCH;
+    }
+
+    // Applies a read operation to its operand
+    public static void read(CPU6502 cpu, int operation, int value) {
+        switch (operation) {
+            case LDA: cpu.A = value; cpu.setNZ(value); break;
+            case LDX: cpu.X = value; cpu.setNZ(value); break;
+            case LDY: cpu.Y = value; cpu.setNZ(value); break;
+            case ADC: cpu.addWithCarry(value); break;
+            case SBC: cpu.subtractWithCarry(value); break;
+            case AND: cpu.A &= value; cpu.setNZ(cpu.A); break;
+            case ORA: cpu.A |= value; cpu.setNZ(cpu.A); break;
+            case EOR: cpu.A ^= value; cpu.setNZ(cpu.A); break;
+            case CMP: cpu.compare(cpu.A, value); break;
+            case CPX: cpu.compare(cpu.X, value); break;
+            case CPY: cpu.compare(cpu.Y, value); break;
+            case NOP: break;
+            case LAX: cpu.A = cpu.X = value; cpu.setNZ(value); break;
+            case ANC:
+                cpu.A &= value;
+                cpu.setNZ(cpu.A);
+                cpu.setFlag(CPU6502.FLAG_CARRY, (cpu.A & 0x80) != 0);
+                break;
+            case ALR: cpu.A = modify(cpu, LSR, cpu.A & value); break;
+            case ARR: // AND then ROR A, with C and V taken from bits 6 and 5 of the result
+                cpu.A = ((cpu.A & value) >> 1) | (cpu.getFlag(CPU6502.FLAG_CARRY) ? 0x80 : 0);
+                cpu.setNZ(cpu.A);
+                cpu.setFlag(CPU6502.FLAG_CARRY, (cpu.A & 0x40) != 0);
+                cpu.setFlag(CPU6502.FLAG_OVERFLOW, ((cpu.A >> 6 ^ cpu.A >> 5) & 1) != 0);
+                break;
+            case AXS: // X = (A & X) - operand, flags as CMP
+                cpu.compare(cpu.A & cpu.X, value);
+                cpu.X = ((cpu.A & cpu.X) - value) & 0xFF;
+                break;
+            default: // BIT
+                cpu.setFlag(CPU6502.FLAG_ZERO, (cpu.A & value) == 0);
+                cpu.setFlag(CPU6502.FLAG_OVERFLOW, (value & 0x40) != 0);
+                cpu.setFlag(CPU6502.FLAG_NEGATIVE, (value & 0x80) != 0);
+                break;
+        }
+    }
+
+    // The register a store writes
+    public static int storeValue(CPU6502 cpu, int operation) {
+        switch (operation) {
+            case STA: return cpu.A;
+            case STX: return cpu.X;
+            case STY: return cpu.Y;
+            default:  return cpu.A & cpu.X; // SAX
+        }
+    }
+
+    // Applies a read-modify-write operation; returns the new value
+    public static int modify(CPU6502 cpu, int operation, int value) {
+        int result;
+        switch (operation) {
+            case ASL:
+                cpu.setFlag(CPU6502.FLAG_CARRY, (value & 0x80) != 0);
+                result = (value << 1) & 0xFF;
+                break;
+            case LSR:
+                cpu.setFlag(CPU6502.FLAG_CARRY, (value & 0x01) != 0);
+                result = value >> 1;
+                break;
+            case ROL:
+                result = ((value << 1) | (cpu.getFlag(CPU6502.FLAG_CARRY) ? 0x01 : 0)) & 0xFF;
+                cpu.setFlag(CPU6502.FLAG_CARRY, (value & 0x80) != 0);
+                break;
+            case ROR:
+                result = (value >> 1) | (cpu.getFlag(CPU6502.FLAG_CARRY) ? 0x80 : 0);
+                cpu.setFlag(CPU6502.FLAG_CARRY, (value & 0x01) != 0);
+                break;
+            case INC:
+                result = (value + 1) & 0xFF;
+                break;
+            case DEC:
+                result = (value - 1) & 0xFF;
+                break;
+            // The combinations write what the first operation produced; the read sets the flags
+            case SLO: result = modify(cpu, ASL, value); read(cpu, ORA, result); return result;
+            case RLA: result = modify(cpu, ROL, value); read(cpu, AND, result); return result;
+            case SRE: result = modify(cpu, LSR, value); read(cpu, EOR, result); return result;
+            case RRA: result = modify(cpu, ROR, value); read(cpu, ADC, result); return result;
+            case DCP: result = (value - 1) & 0xFF; read(cpu, CMP, result); return result;
+            default:  result = (value + 1) & 0xFF; read(cpu, SBC, result); return result; // ISC
+        }
+        cpu.setNZ(result);
+        return result;
+    }
+
+    // Implied operations; shifts and rotates work on A
+    public static void implied(CPU6502 cpu, int operation) {
+        switch (operation) {
+            case ASL: case LSR: case ROL: case ROR: cpu.A = modify(cpu, operation, cpu.A); break;
+            case TAX: cpu.X = cpu.A; cpu.setNZ(cpu.X); break;
+            case TAY: cpu.Y = cpu.A; cpu.setNZ(cpu.Y); break;
+            case TXA: cpu.A = cpu.X; cpu.setNZ(cpu.A); break;
+            case TYA: cpu.A = cpu.Y; cpu.setNZ(cpu.A); break;
+            case TSX: cpu.X = cpu.SP; cpu.setNZ(cpu.X); break;
+            case TXS: cpu.SP = cpu.X; break;
+            case INX: cpu.X = (cpu.X + 1) & 0xFF; cpu.setNZ(cpu.X); break;
+            case INY: cpu.Y = (cpu.Y + 1) & 0xFF; cpu.setNZ(cpu.Y); break;
+            case DEX: cpu.X = (cpu.X - 1) & 0xFF; cpu.setNZ(cpu.X); break;
+            case DEY: cpu.Y = (cpu.Y - 1) & 0xFF; cpu.setNZ(cpu.Y); break;
+            case CLC: cpu.setFlag(CPU6502.FLAG_CARRY, false); break;
+            case SEC: cpu.setFlag(CPU6502.FLAG_CARRY, true); break;
+            case CLI: cpu.setFlag(CPU6502.FLAG_INTERRUPT, false); break;
+            case SEI: cpu.setFlag(CPU6502.FLAG_INTERRUPT, true); break;
+            case CLD: cpu.setFlag(CPU6502.FLAG_DECIMAL, false); break;
+            case SED: cpu.setFlag(CPU6502.FLAG_DECIMAL, true); break;
+            case CLV: cpu.setFlag(CPU6502.FLAG_OVERFLOW, false); break;
+            default: break; // NOP
+        }
+    }
+}
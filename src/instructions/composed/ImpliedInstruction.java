@@ -0,0 +1,29 @@
+package instructions.composed;
+
+import cpu6502.CPU6502;
+import cpu6502.Instruction;
+import cpu6502.Memory;
+
+// One-byte register, flag and accumulator-shift instructions
+public final class ImpliedInstruction implements Instruction {
+    private final int operation;
+
+    public ImpliedInstruction(int operation) {
+        this.operation = operation;
+    }
+
+    @Override
+    public void execute(CPU6502 cpu, Memory memory) {
+        Alu.implied(cpu, operation);
+    }
+
+    @Override
+    public int getSize() {
+        return 1;
+    }
+
+    @Override
+    public int getCycles() {
+        return 2;
+    }
+}
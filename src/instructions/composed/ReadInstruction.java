@@ -0,0 +1,34 @@
+package instructions.composed;
+
+import cpu6502.CPU6502;
+import cpu6502.Instruction;
+import cpu6502.Memory;
+
+// Loads, ALU operations, compares and BIT: one operand read through any addressing mode
+public final class ReadInstruction implements Instruction {
+    private final int operation;
+    private final int mode;
+
+    public ReadInstruction(int operation, int mode) {
+        this.operation = operation;
+        this.mode = mode;
+    }
+
+    @Override
+    public void execute(CPU6502 cpu, Memory memory) {
+        int value = mode == Addressing.IMMEDIATE
+                ? cpu.fetch()
+                : memory.read(Addressing.address(cpu, memory, mode, true)) & 0xFF;
+        Alu.read(cpu, operation, value);
+    }
+
+    @Override
+    public int getSize() {
+        return Addressing.size(mode);
+    }
+
+    @Override
+    public int getCycles() {
+        return Addressing.readCycles(mode); // +1 if an indexed read crosses a page
+    }
+}
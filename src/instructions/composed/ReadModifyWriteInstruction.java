@@ -0,0 +1,32 @@
+package instructions.composed;
+
+import cpu6502.CPU6502;
+import cpu6502.Instruction;
+import cpu6502.Memory;
+
+// ASL, LSR, ROL, ROR, INC and DEC on memory
+public final class ReadModifyWriteInstruction implements Instruction {
+    private final int operation;
+    private final int mode;
+
+    public ReadModifyWriteInstruction(int operation, int mode) {
+        this.operation = operation;
+        this.mode = mode;
+    }
+
+    @Override
+    public void execute(CPU6502 cpu, Memory memory) {
+        int address = Addressing.address(cpu, memory, mode, false);
+        memory.write(address, Alu.modify(cpu, operation, memory.read(address) & 0xFF));
+    }
+
+    @Override
+    public int getSize() {
+        return Addressing.size(mode);
+    }
+
+    @Override
+    public int getCycles() {
+        return Addressing.readModifyWriteCycles(mode); // never takes the page-cross shortcut
+    }
+}
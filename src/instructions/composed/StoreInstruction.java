@@ -0,0 +1,32 @@
+package instructions.composed;
+
+import cpu6502.CPU6502;
+import cpu6502.Instruction;
+import cpu6502.Memory;
+
+// STA, STX and STY
+public final class StoreInstruction implements Instruction {
+    private final int operation;
+    private final int mode;
+
+    public StoreInstruction(int operation, int mode) {
+        this.operation = operation;
+        this.mode = mode;
+    }
+
+    @Override
+    public void execute(CPU6502 cpu, Memory memory) {
+        int address = Addressing.address(cpu, memory, mode, false);
+        memory.write(address, Alu.storeValue(cpu, operation));
+    }
+
+    @Override
+    public int getSize() {
+        return Addressing.size(mode);
+    }
+
+    @Override
+    public int getCycles() {
+        return Addressing.writeCycles(mode); // indexed stores always take the extra cycle
+    }
+}
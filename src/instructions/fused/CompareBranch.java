@@ -0,0 +1,23 @@
+package instructions.fused;
+
+import cpu6502.CPU6502;
+import cpu6502.Instruction;
+import cpu6502.Memory;
+
+// CMP #imm/BEQ
+public class CompareBranch extends FusedInstruction {
+    private final int operand;
+    private final int target;
+
+    public CompareBranch(Instruction compare, Instruction branch, int operand, int nextPC, int target) {
+        super(compare, branch, 0xF0, nextPC); // BEQ
+        this.operand = operand;
+        this.target = target;
+    }
+
+    @Override
+    public void execute(CPU6502 cpu, Memory memory) {
+        cpu.compare(cpu.A, operand);
+        branchIf(cpu, cpu.A == operand, target);
+    }
+}
@@ -0,0 +1,29 @@
+package instructions.fused;
+
+import cpu6502.CPU6502;
+import cpu6502.Instruction;
+import cpu6502.Memory;
+
+// DEX/BNE and DEY/BNE countdown loops
+public class DecrementBranch extends FusedInstruction {
+    private final boolean useX;
+    private final int target;
+
+    public DecrementBranch(Instruction decrement, Instruction branch, boolean useX, int nextPC, int target) {
+        super(decrement, branch, 0xD0, nextPC); // BNE
+        this.useX = useX;
+        this.target = target;
+    }
+
+    @Override
+    public void execute(CPU6502 cpu, Memory memory) {
+        int value;
+        if (useX) {
+            value = cpu.X = (cpu.X - 1) & 0xFF;
+        } else {
+            value = cpu.Y = (cpu.Y - 1) & 0xFF;
+        }
+        cpu.setNZ(value);
+        branchIf(cpu, value != 0, target);
+    }
+}
@@ -0,0 +1,53 @@
+package instructions.fused;
+
+import cpu6502.CPU6502;
+import cpu6502.Instruction;
+
+// Two adjacent instructions decoded once and run as one handler. The operands are
+// resolved at decode time; results, flags and cycles match running both separately.
+public abstract class FusedInstruction implements Instruction {
+    protected final int nextPC; // address after the pair
+    private final int size;
+    private final int cycles;
+    private final int secondPC;
+    private final int secondOpcode;
+    private final int firstCycles;
+    private final int secondCycles;
+
+    protected FusedInstruction(Instruction first, Instruction second, int secondOpcode, int nextPC) {
+        this.nextPC = nextPC;
+        this.size = first.getSize() + second.getSize();
+        this.cycles = first.getCycles() + second.getCycles();
+        this.secondPC = (nextPC - second.getSize()) & 0xFFFF;
+        this.secondOpcode = secondOpcode;
+        this.firstCycles = first.getCycles();
+        this.secondCycles = second.getCycles();
+    }
+
+    // Between the halves: the second instruction gets its own history entry and its I/O
+    // accesses are dated from its own start (penalty: extra cycles the first half took)
+    protected void startSecond(CPU6502 cpu, int penalty) {
+        cpu.startSecondInstruction(secondPC, secondOpcode, firstCycles + penalty, secondCycles);
+    }
+
+    // The branch half of a pair, timed like Branch: +1 if taken, +1 more across a page
+    protected void branchIf(CPU6502 cpu, boolean condition, int target) {
+        startSecond(cpu, 0);
+        if (condition) {
+            cpu.PC = target;
+            cpu.addCycles(1 + CPU6502.pageCrossed(nextPC, target));
+        } else {
+            cpu.PC = nextPC;
+        }
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public int getCycles() {
+        return cycles;
+    }
+}
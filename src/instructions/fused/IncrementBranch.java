@@ -0,0 +1,25 @@
+package instructions.fused;
+
+import cpu6502.CPU6502;
+import cpu6502.Instruction;
+import cpu6502.Memory;
+
+// INC zp/BNE: low byte of a 16-bit counter, branching past the carry into the high byte
+public class IncrementBranch extends FusedInstruction {
+    private final int address;
+    private final int target;
+
+    public IncrementBranch(Instruction increment, Instruction branch, int address, int nextPC, int target) {
+        super(increment, branch, 0xD0, nextPC); // BNE
+        this.address = address;
+        this.target = target;
+    }
+
+    @Override
+    public void execute(CPU6502 cpu, Memory memory) {
+        int value = (memory.read(address) + 1) & 0xFF;
+        memory.write(address, value);
+        cpu.setNZ(value);
+        branchIf(cpu, value != 0, target);
+    }
+}
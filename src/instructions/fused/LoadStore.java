@@ -0,0 +1,72 @@
+package instructions.fused;
+
+import cpu6502.CPU6502;
+import cpu6502.Instruction;
+import cpu6502.Memory;
+
+// LDA/STA copy: any of LDA #, abs, abs,X, abs,Y, (zp),Y followed by any of
+// STA zp, abs, abs,X, abs,Y, (zp),Y
+public class LoadStore extends FusedInstruction {
+    private final int loadOpcode;
+    private final int loadOperand;
+    private final int storeOpcode;
+    private final int storeOperand;
+
+    public LoadStore(Instruction load, int loadOpcode, int loadOperand,
+                     Instruction store, int storeOpcode, int storeOperand, int nextPC) {
+        super(load, store, storeOpcode, nextPC);
+        this.loadOpcode = loadOpcode;
+        this.loadOperand = loadOperand;
+        this.storeOpcode = storeOpcode;
+        this.storeOperand = storeOperand;
+    }
+
+    public static boolean canFuse(int loadOpcode, int storeOpcode) {
+        return isLoad(loadOpcode) && isStore(storeOpcode);
+    }
+
+    private static boolean isLoad(int opcode) {
+        return opcode == 0xA9 || opcode == 0xAD || opcode == 0xBD || opcode == 0xB9 || opcode == 0xB1;
+    }
+
+    private static boolean isStore(int opcode) {
+        return opcode == 0x85 || opcode == 0x8D || opcode == 0x9D || opcode == 0x99 || opcode == 0x91;
+    }
+
+    @Override
+    public void execute(CPU6502 cpu, Memory memory) {
+        int value;
+        int penalty = 0;
+        switch (loadOpcode) {
+            case 0xA9: value = loadOperand; break;
+            case 0xAD: value = memory.read(loadOperand) & 0xFF; break;
+            default: {
+                int base = loadOpcode == 0xB1 ? pointer(memory, loadOperand) : loadOperand;
+                int address = (base + (loadOpcode == 0xBD ? cpu.X : cpu.Y)) & 0xFFFF;
+                penalty = CPU6502.pageCrossed(base, address);
+                cpu.addCycles(penalty);
+                value = memory.read(address) & 0xFF;
+                break;
+            }
+        }
+        cpu.A = value;
+        cpu.setNZ(value);
+
+        int address;
+        switch (storeOpcode) {
+            case 0x85:
+            case 0x8D: address = storeOperand; break;
+            case 0x9D: address = (storeOperand + cpu.X) & 0xFFFF; break;
+            case 0x99: address = (storeOperand + cpu.Y) & 0xFFFF; break;
+            default:   address = (pointer(memory, storeOperand) + cpu.Y) & 0xFFFF; break;
+        }
+        // The store is dated from its own start, as when the two run separately
+        startSecond(cpu, penalty);
+        memory.write(address, value);
+        cpu.PC = nextPC;
+    }
+
+    private static int pointer(Memory memory, int zpAddr) {
+        return (memory.read(zpAddr) & 0xFF) | ((memory.read((zpAddr + 1) & 0xFF) & 0xFF) << 8);
+    }
+}
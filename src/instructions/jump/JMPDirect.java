@@ -8,8 +8,8 @@ public class JMPDirect implements Instruction {
 
     @Override
     public void execute(CPU6502 cpu, Memory memory) {
-        int lower = memory.read(cpu.PC++)&0xFF;
-        int upper = memory.read(cpu.PC++)&0xFF;
+        int lower = cpu.fetch()&0xFF;
+        int upper = cpu.fetch()&0xFF;
 
         cpu.PC = (upper<<8) | lower;
     }
@@ -21,6 +21,6 @@ public class JMPDirect implements Instruction {
 
     @Override
     public int getCycles() {
-        return 0;
+        return 3;
     }
 }
@@ -7,12 +7,13 @@ import cpu6502.Memory;
 public class JMPIndirect implements Instruction {
     @Override
     public void execute(CPU6502 cpu, Memory memory) {
-        int lower = memory.read(cpu.PC++)&0xFF;
-        int upper = memory.read(cpu.PC++)&0xFF;
+        int lower = cpu.fetch()&0xFF;
+        int upper = cpu.fetch()&0xFF;
 
         int jmpAddress = (upper<<8) | lower;
         int jumpLocationLower = memory.read(jmpAddress);
-        int jumpLocationUpper = memory.read(jmpAddress+1);
+        // The high byte comes from the same page: JMP ($xxFF) reads $xx00, not $(xx+1)00
+        int jumpLocationUpper = memory.read((jmpAddress & 0xFF00) | ((jmpAddress + 1) & 0xFF));
 
         cpu.PC = (jumpLocationUpper<<8) | jumpLocationLower;
 
@@ -25,6 +26,6 @@ public class JMPIndirect implements Instruction {
 
     @Override
     public int getCycles() {
-        return 0;
+        return 5;
     }
 }
@@ -7,8 +7,8 @@ import cpu6502.Memory;
 public class JSR implements Instruction {
     @Override
     public void execute(CPU6502 cpu, Memory memory) {
-        int low = memory.read(cpu.PC++) & 0xFF;
-        int high = memory.read(cpu.PC++) & 0xFF;
+        int low = cpu.fetch() & 0xFF;
+        int high = cpu.fetch() & 0xFF;
         int target = (high << 8) | low;
 
         // Push return address (PC - 1) to the stack
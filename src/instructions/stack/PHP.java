@@ -4,12 +4,11 @@ import cpu6502.CPU6502;
 import cpu6502.Instruction;
 import cpu6502.Memory;
 
-public class TSX implements Instruction {
+public class PHP implements Instruction {
     @Override
     public void execute(CPU6502 cpu, Memory memory) {
-        cpu.X = cpu.SP;
-        cpu.setFlag(CPU6502.FLAG_ZERO, cpu.X == 0);
-        cpu.setFlag(CPU6502.FLAG_NEGATIVE, (cpu.X&0x80) != 0);
+        // The pushed copy always has BREAK and UNUSED set
+        cpu.pushStack(cpu.getStatus() | CPU6502.FLAG_BREAK | CPU6502.FLAG_UNUSED, memory);
     }
 
     @Override
@@ -19,6 +18,6 @@ public class TSX implements Instruction {
 
     @Override
     public int getCycles() {
-        return 2;
+        return 3;
     }
 }
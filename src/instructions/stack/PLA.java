@@ -10,17 +10,16 @@ public class PLA implements Instruction {
         cpu.SP = (cpu.SP+1) & 0xFF;
         cpu.A = memory.read(0x0100 + cpu.SP);
 
-        cpu.setFlag(CPU6502.FLAG_ZERO, cpu.A == 0);
-        cpu.setFlag(CPU6502.FLAG_NEGATIVE, (cpu.A&0x80) != 0);
+        cpu.setNZ(cpu.A);
     }
 
     @Override
     public int getSize() {
-        return 0;
+        return 1;
     }
 
     @Override
     public int getCycles() {
-        return 0;
+        return 4;
     }
 }
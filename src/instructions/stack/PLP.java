@@ -4,13 +4,11 @@ import cpu6502.CPU6502;
 import cpu6502.Instruction;
 import cpu6502.Memory;
 
-public class TXA implements Instruction {
+public class PLP implements Instruction {
     @Override
     public void execute(CPU6502 cpu, Memory memory) {
-        cpu.A = cpu.X;
-
-        cpu.setFlag(CPU6502.FLAG_ZERO, cpu.A == 0);
-        cpu.setFlag(CPU6502.FLAG_NEGATIVE, (cpu.A & 0x80) != 0);
+        // BREAK is not a real flag: ignore it, and UNUSED always reads as set
+        cpu.setStatus(cpu.popStack(memory) & ~CPU6502.FLAG_BREAK | CPU6502.FLAG_UNUSED);
     }
 
     @Override
@@ -20,6 +18,6 @@ public class TXA implements Instruction {
 
     @Override
     public int getCycles() {
-        return 2;
+        return 4;
     }
 }
@@ -8,7 +8,7 @@ public class RTI implements Instruction {
     @Override
     public void execute(CPU6502 cpu, Memory memory) {
         // Pull status from stack (including BREAK and UNUSED bits)
-        cpu.status = cpu.popStack(memory) & 0xEF | CPU6502.FLAG_UNUSED; // clear BREAK bit (bit 4), set UNUSED bit (bit 5)
+        cpu.setStatus(cpu.popStack(memory) & 0xEF | CPU6502.FLAG_UNUSED); // clear BREAK bit (bit 4), set UNUSED bit (bit 5)
 
         // Pull PC from stack (low then high)
         int lo = cpu.popStack(memory);
@@ -7,10 +7,7 @@ import cpu6502.Memory;
 public class BRK implements Instruction {
     @Override
     public void execute(CPU6502 cpu, Memory memory) {
-        // Advance past the BRK opcode
-        cpu.PC++;
-
-        // Trigger BRK-style interrupt (true = BRK)
+        // Trigger BRK-style interrupt (true = BRK); it pushes PC + 1 to skip the padding byte
         cpu.handleInterrupt(0xFFFE, true);
     }
 
@@ -4,10 +4,10 @@ import cpu6502.CPU6502;
 import cpu6502.Instruction;
 import cpu6502.Memory;
 
-public class NOP implements Instruction {
+public class IllegalOpcode implements Instruction {
     @Override
     public void execute(CPU6502 cpu, Memory memory) {
-
+        cpu.haltOnIllegalOpcode();
     }
 
     @Override
@@ -17,6 +17,6 @@ public class NOP implements Instruction {
 
     @Override
     public int getCycles() {
-        return 2;
+        return 0;
     }
 }
@@ -0,0 +1,27 @@
+package mapper;
+
+import cpu6502.Memory;
+import cpu6502.MemoryPage;
+
+// Mapper 3: fixed PRG as in NROM, switchable 8KB CHR bank
+public class CNROM extends Mapper {
+    private final PrgBank[] prg;
+    private final MemoryPage[] chr;
+
+    public CNROM(byte[] prgRom, byte[] chrRom, Memory cpuMemory, Memory ppuMemory) {
+        super(prgRom, chrRom, cpuMemory, ppuMemory);
+        prg = prgBanks(0x8000);
+        chr = chrBanks(CHR_BANK_8K);
+    }
+
+    @Override
+    public void reset() {
+        mapPrg(0x8000, 0x8000, prg, 0);
+        mapChr(0x0000, CHR_BANK_8K, chr, 0);
+    }
+
+    @Override
+    protected void writeRegister(int addr, int value) {
+        mapChr(0x0000, CHR_BANK_8K, chr, value & 0x03);
+    }
+}
@@ -0,0 +1,94 @@
+package mapper;
+
+import cpu6502.Memory;
+import cpu6502.MemoryPage;
+
+// Mapper 1 (SxROM). Registers are loaded one bit per write through a 5-bit shift
+// register; the fifth write picks the register from address bits 13-14.
+// Nametable mirroring (control bits 0-1) is not applied: the nametables are the one
+// 2KB VRAM page Main maps over $2000-$2FFF, and mappers only map CHR banks.
+public class MMC1 extends Mapper {
+    private final PrgBank[] prg16;
+    private final PrgBank[] prg32;
+    private final MemoryPage[] chr4;
+    private final MemoryPage[] chr8;
+
+    private int shift;
+    private int shiftCount;
+    private int control;
+    private int chrBank0;
+    private int chrBank1;
+    private int prgBank;
+
+    public MMC1(byte[] prgRom, byte[] chrRom, Memory cpuMemory, Memory ppuMemory) {
+        super(prgRom, chrRom, cpuMemory, ppuMemory);
+        prg16 = prgBanks(PRG_BANK_16K);
+        prg32 = prgBanks(0x8000);
+        chr8 = chrBanks(CHR_BANK_8K);
+        chr4 = chrRom != null ? chrBanks(CHR_BANK_4K) : chr8;
+    }
+
+    @Override
+    public void reset() {
+        shift = 0;
+        shiftCount = 0;
+        control = 0x0C; // PRG mode 3: last bank fixed at $C000
+        chrBank0 = chrBank1 = prgBank = 0;
+        mapPrgRam();
+        updatePrg();
+        updateChr();
+    }
+
+    @Override
+    protected void writeRegister(int addr, int value) {
+        if ((value & 0x80) != 0) {
+            shift = 0;
+            shiftCount = 0;
+            control |= 0x0C;
+            updatePrg();
+            return;
+        }
+
+        shift |= (value & 1) << shiftCount;
+        if (++shiftCount < 5) {
+            return;
+        }
+
+        switch ((addr >> 13) & 0x03) {
+            case 0: control = shift; updatePrg(); updateChr(); break;
+            case 1: chrBank0 = shift; updateChr(); break;
+            case 2: chrBank1 = shift; updateChr(); break;
+            default: prgBank = shift & 0x0F; updatePrg(); break;
+        }
+        shift = 0;
+        shiftCount = 0;
+    }
+
+    private void updatePrg() {
+        switch ((control >> 2) & 0x03) {
+            case 0:
+            case 1: // 32KB at $8000, low bit ignored
+                mapPrg(0x8000, 0x8000, prg32, prgBank >> 1);
+                break;
+            case 2: // first bank fixed at $8000
+                mapPrg(0x8000, PRG_BANK_16K, prg16, 0);
+                mapPrg(0xC000, PRG_BANK_16K, prg16, prgBank);
+                break;
+            default: // last bank fixed at $C000
+                mapPrg(0x8000, PRG_BANK_16K, prg16, prgBank);
+                mapPrg(0xC000, PRG_BANK_16K, prg16, prg16.length - 1);
+                break;
+        }
+    }
+
+    private void updateChr() {
+        if (chrRom == null) {
+            mapChr(0x0000, CHR_BANK_8K, chr8, 0); // 8KB CHR RAM is not banked here
+        } else if ((control & 0x10) == 0) {
+            mapChr(0x0000, CHR_BANK_8K, chr8, chrBank0 >> 1);
+        } else {
+            mapChr(0x0000, CHR_BANK_4K, chr4, chrBank0);
+            mapChr(0x1000, CHR_BANK_4K, chr4, chrBank1);
+        }
+    }
+}
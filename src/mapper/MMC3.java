@@ -0,0 +1,122 @@
+package mapper;
+
+import cpu6502.CPU6502;
+import cpu6502.Memory;
+import cpu6502.MemoryPage;
+
+// Mapper 4 (TxROM): four 8KB PRG slots, two of them switchable, eight 1KB CHR
+// slots (the first two used as 2KB pairs) and a scanline counter that asserts
+// IRQ when it reaches zero. CHR banks map straight into 1KB PPU page slots, so
+// the PPU Memory must use a page size of 1KB or less. Mirroring ($A000) is not
+// applied yet.
+public class MMC3 extends Mapper implements ScanlineCounter {
+    private static final int PRG_BANK_8K = 0x2000;
+    private static final int CHR_BANK_1K = 0x0400;
+
+    private final CPU6502 cpu;
+    private final PrgBank[] prg;
+    private final MemoryPage[] chr;
+
+    private int bankSelect;
+    private final int[] registers = new int[8]; // R0-R5 CHR, R6-R7 PRG
+
+    private int irqLatch;
+    private int irqCounter;
+    private boolean irqReload;
+    private boolean irqEnabled;
+
+    public MMC3(byte[] prgRom, byte[] chrRom, CPU6502 cpu, Memory cpuMemory, Memory ppuMemory) {
+        super(prgRom, chrRom, cpuMemory, ppuMemory);
+        if (ppuMemory.getPageSize() > CHR_BANK_1K) {
+            throw new IllegalArgumentException("MMC3 needs 1KB PPU pages, got " + ppuMemory.getPageSize());
+        }
+        this.cpu = cpu;
+        prg = prgBanks(PRG_BANK_8K);
+        chr = chrBanks(CHR_BANK_1K);
+    }
+
+    @Override
+    public void reset() {
+        bankSelect = 0;
+        registers[0] = 0; registers[1] = 2;
+        registers[2] = 4; registers[3] = 5; registers[4] = 6; registers[5] = 7;
+        registers[6] = 0; registers[7] = 1;
+        irqLatch = irqCounter = 0;
+        irqReload = irqEnabled = false;
+        cpu.setIrqLine(CPU6502.IRQ_MAPPER, false);
+        mapPrgRam();
+        updatePrg();
+        updateChr();
+    }
+
+    @Override
+    protected void writeRegister(int addr, int value) {
+        boolean odd = (addr & 1) != 0;
+        switch (addr & 0xE000) {
+            case 0x8000:
+                if (odd) {
+                    registers[bankSelect & 0x07] = value;
+                } else {
+                    bankSelect = value;
+                }
+                updatePrg();
+                updateChr();
+                break;
+            case 0xA000:
+                break; // mirroring / PRG RAM protect
+            case 0xC000:
+                if (odd) {
+                    irqCounter = 0;
+                    irqReload = true;
+                } else {
+                    irqLatch = value;
+                }
+                break;
+            default: // $E000
+                irqEnabled = odd;
+                if (!odd) {
+                    cpu.setIrqLine(CPU6502.IRQ_MAPPER, false); // acknowledge
+                }
+                break;
+        }
+    }
+
+    @Override
+    public void onScanline() {
+        if (irqCounter == 0 || irqReload) {
+            irqCounter = irqLatch;
+            irqReload = false;
+        } else {
+            irqCounter--;
+        }
+        if (irqCounter == 0 && irqEnabled) {
+            cpu.setIrqLine(CPU6502.IRQ_MAPPER, true); // held until $E000 is written
+        }
+    }
+
+    private void updatePrg() {
+        int secondLast = prg.length - 2;
+        boolean swapped = (bankSelect & 0x40) != 0;
+        mapPrg(0x8000, PRG_BANK_8K, prg, swapped ? secondLast : registers[6]);
+        mapPrg(0xA000, PRG_BANK_8K, prg, registers[7]);
+        mapPrg(0xC000, PRG_BANK_8K, prg, swapped ? registers[6] : secondLast);
+        mapPrg(0xE000, PRG_BANK_8K, prg, prg.length - 1);
+    }
+
+    // The 2KB pair sits in the low pattern table unless bit 7 inverts the halves
+    private void updateChr() {
+        if (chrRom == null) {
+            mapChr(0x0000, CHR_BANK_8K, chr, 0); // CHR RAM is not banked
+            return;
+        }
+        int pairs = (bankSelect & 0x80) != 0 ? 0x1000 : 0x0000;
+        int singles = pairs ^ 0x1000;
+        mapChr(pairs, CHR_BANK_1K, chr, registers[0] & 0xFE);
+        mapChr(pairs + 0x400, CHR_BANK_1K, chr, registers[0] | 0x01);
+        mapChr(pairs + 0x800, CHR_BANK_1K, chr, registers[1] & 0xFE);
+        mapChr(pairs + 0xC00, CHR_BANK_1K, chr, registers[1] | 0x01);
+        for (int i = 0; i < 4; i++) {
+            mapChr(singles + i * CHR_BANK_1K, CHR_BANK_1K, chr, registers[2 + i]);
+        }
+    }
+}
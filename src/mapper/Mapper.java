@@ -0,0 +1,90 @@
+package mapper;
+
+import cpu6502.CPU6502;
+import cpu6502.ChrRomPage;
+import cpu6502.Memory;
+import cpu6502.MemoryPage;
+import cpu6502.RamPage;
+
+// Cartridge board logic. A mapper builds a view for every PRG and CHR bank once and
+// switches banks by mapping those views into the CPU ($8000-$FFFF) and PPU
+// ($0000-$1FFF) page tables, so a bank switch never copies bytes.
+public abstract class Mapper {
+    protected static final int PRG_BANK_16K = 0x4000;
+    protected static final int CHR_BANK_8K = 0x2000;
+    protected static final int CHR_BANK_4K = 0x1000;
+
+    protected final byte[] prgRom;
+    protected final byte[] chrRom; // null: the board has 8KB of CHR RAM
+    protected final Memory cpuMemory;
+    protected final Memory ppuMemory;
+
+    protected Mapper(byte[] prgRom, byte[] chrRom, Memory cpuMemory, Memory ppuMemory) {
+        this.prgRom = prgRom;
+        this.chrRom = chrRom;
+        this.cpuMemory = cpuMemory;
+        this.ppuMemory = ppuMemory;
+    }
+
+    // cpu receives the board's IRQs (MMC3)
+    public static Mapper create(int number, byte[] prgRom, byte[] chrRom, CPU6502 cpu,
+                                Memory cpuMemory, Memory ppuMemory) {
+        Mapper mapper;
+        switch (number) {
+            case 0: mapper = new NROM(prgRom, chrRom, cpuMemory, ppuMemory); break;
+            case 1: mapper = new MMC1(prgRom, chrRom, cpuMemory, ppuMemory); break;
+            case 2: mapper = new UxROM(prgRom, chrRom, cpuMemory, ppuMemory); break;
+            case 3: mapper = new CNROM(prgRom, chrRom, cpuMemory, ppuMemory); break;
+            case 4: mapper = new MMC3(prgRom, chrRom, cpu, cpuMemory, ppuMemory); break;
+            default: throw new IllegalArgumentException("Unsupported mapper: " + number);
+        }
+        // The old board may have left its IRQ asserted (MMC3 holds it until $E000 is written)
+        if (cpu != null) {
+            cpu.setIrqLine(CPU6502.IRQ_MAPPER, false);
+        }
+        return mapper;
+    }
+
+    // Maps the power-on banks
+    public abstract void reset();
+
+    // CPU write to $8000-$FFFF
+    protected void writeRegister(int addr, int value) {
+        // No registers
+    }
+
+    // One view per bank of the given size; a ROM smaller than the bank gives one view of all of it
+    protected PrgBank[] prgBanks(int bankSize) {
+        int count = Math.max(1, prgRom.length / bankSize);
+        PrgBank[] banks = new PrgBank[count];
+        for (int i = 0; i < count; i++) {
+            banks[i] = new PrgBank(this, prgRom, i * bankSize, Math.min(bankSize, prgRom.length));
+        }
+        return banks;
+    }
+
+    protected MemoryPage[] chrBanks(int bankSize) {
+        if (chrRom == null) {
+            return new MemoryPage[] {new RamPage(CHR_BANK_8K)};
+        }
+        int count = Math.max(1, chrRom.length / bankSize);
+        MemoryPage[] banks = new MemoryPage[count];
+        for (int i = 0; i < count; i++) {
+            banks[i] = new ChrRomPage(chrRom, i * bankSize, Math.min(bankSize, chrRom.length));
+        }
+        return banks;
+    }
+
+    protected void mapPrg(int address, int size, PrgBank[] banks, int bank) {
+        cpuMemory.mapRange(address, address + size - 1, banks[Math.floorMod(bank, banks.length)]);
+    }
+
+    protected void mapChr(int address, int size, MemoryPage[] banks, int bank) {
+        ppuMemory.mapRange(address, address + size - 1, banks[Math.floorMod(bank, banks.length)]);
+    }
+
+    // 8KB of battery/work RAM at $6000-$7FFF
+    protected void mapPrgRam() {
+        cpuMemory.mapRange(0x6000, 0x7FFF, new RamPage(0x2000));
+    }
+}
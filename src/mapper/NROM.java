@@ -0,0 +1,22 @@
+package mapper;
+
+import cpu6502.Memory;
+import cpu6502.MemoryPage;
+
+// Mapper 0: 16KB (mirrored) or 32KB PRG, 8KB CHR, no registers
+public class NROM extends Mapper {
+    private final PrgBank[] prg;
+    private final MemoryPage[] chr;
+
+    public NROM(byte[] prgRom, byte[] chrRom, Memory cpuMemory, Memory ppuMemory) {
+        super(prgRom, chrRom, cpuMemory, ppuMemory);
+        prg = prgBanks(0x8000);
+        chr = chrBanks(CHR_BANK_8K);
+    }
+
+    @Override
+    public void reset() {
+        mapPrg(0x8000, 0x8000, prg, 0);
+        mapChr(0x0000, CHR_BANK_8K, chr, 0);
+    }
+}
@@ -0,0 +1,18 @@
+package mapper;
+
+import cpu6502.RomPage;
+
+// A PRG ROM bank view; CPU writes into it are the mapper's register writes
+class PrgBank extends RomPage {
+    private final Mapper mapper;
+
+    PrgBank(Mapper mapper, byte[] prgRom, int offset, int length) {
+        super(prgRom, offset, length, 0x8000);
+        this.mapper = mapper;
+    }
+
+    @Override
+    public void write(int addr, int value) {
+        mapper.writeRegister(addr, value);
+    }
+}
@@ -0,0 +1,7 @@
+package mapper;
+
+// Implemented by boards that count PPU scanlines (MMC3). The PPU calls
+// onScanline() once per rendered line, at dot 260, and only if a counter is attached.
+public interface ScanlineCounter {
+    void onScanline();
+}
@@ -0,0 +1,28 @@
+package mapper;
+
+import cpu6502.Memory;
+import cpu6502.MemoryPage;
+
+// Mapper 2: switchable 16KB bank at $8000, last bank fixed at $C000, CHR RAM
+public class UxROM extends Mapper {
+    private final PrgBank[] prg;
+    private final MemoryPage[] chr;
+
+    public UxROM(byte[] prgRom, byte[] chrRom, Memory cpuMemory, Memory ppuMemory) {
+        super(prgRom, chrRom, cpuMemory, ppuMemory);
+        prg = prgBanks(PRG_BANK_16K);
+        chr = chrBanks(CHR_BANK_8K);
+    }
+
+    @Override
+    public void reset() {
+        mapPrg(0x8000, PRG_BANK_16K, prg, 0);
+        mapPrg(0xC000, PRG_BANK_16K, prg, prg.length - 1);
+        mapChr(0x0000, CHR_BANK_8K, chr, 0);
+    }
+
+    @Override
+    protected void writeRegister(int addr, int value) {
+        mapPrg(0x8000, PRG_BANK_16K, prg, value);
+    }
+}
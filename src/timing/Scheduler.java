@@ -0,0 +1,105 @@
+package timing;
+
+import java.util.Arrays;
+
+// The emulated master timeline and the events due on it. Time is counted in NTSC
+// master clock ticks (21.477 MHz): a CPU cycle is 12 ticks, a PPU dot 4. Components
+// register an Event once and (re)schedule it for the next moment something else
+// can observe them; the run loop executes the CPU up to nextEventTime() and then
+// calls advanceTo(), which runs every event due in time order. There are only a
+// handful of event sources, so the queue is a plain array scanned for the minimum.
+public final class Scheduler {
+    public static final int MASTER_PER_CPU_CYCLE = 12;
+    public static final int MASTER_PER_PPU_DOT = 4;
+    public static final long NEVER = Long.MAX_VALUE;
+
+    public static final class Event {
+        private final String name;
+        private final Runnable action;
+        private long time = NEVER;
+
+        private Event(String name, Runnable action) {
+            this.name = name;
+            this.action = action;
+        }
+
+        public boolean isScheduled() {
+            return time != NEVER;
+        }
+
+        public long getTime() {
+            return time;
+        }
+
+        @Override
+        public String toString() {
+            return name + (isScheduled() ? "@" + time : " (idle)");
+        }
+    }
+
+    private long now;
+    private Event[] events = new Event[4];
+    private int eventCount = 0;
+
+    public Scheduler() {
+        this(0);
+    }
+
+    public Scheduler(long startTime) {
+        this.now = startTime;
+    }
+
+    public long now() {
+        return now;
+    }
+
+    // CPU cycle at or after a master time (where the CPU has to stop to see it)
+    public static long toCpuCycle(long masterTime) {
+        return (masterTime + MASTER_PER_CPU_CYCLE - 1) / MASTER_PER_CPU_CYCLE;
+    }
+
+    public Event register(String name, Runnable action) {
+        if (eventCount == events.length) {
+            events = Arrays.copyOf(events, eventCount * 2);
+        }
+        Event event = new Event(name, action);
+        events[eventCount++] = event;
+        return event;
+    }
+
+    public void schedule(Event event, long time) {
+        event.time = time;
+    }
+
+    public void cancel(Event event) {
+        event.time = NEVER;
+    }
+
+    // Time of the earliest scheduled event, or NEVER
+    public long nextEventTime() {
+        long next = NEVER;
+        for (int i = 0; i < eventCount; i++) {
+            next = Math.min(next, events[i].time);
+        }
+        return next;
+    }
+
+    // Moves the timeline to `time`, running every event due by then; each event
+    // runs with now() at its own scheduled time and may schedule itself again
+    public void advanceTo(long time) {
+        while (true) {
+            Event due = null;
+            for (int i = 0; i < eventCount; i++) {
+                Event event = events[i];
+                if (event.time <= time && (due == null || event.time < due.time)) {
+                    due = event;
+                }
+            }
+            if (due == null) break;
+            now = Math.max(now, due.time);
+            due.time = NEVER;
+            due.action.run();
+        }
+        now = Math.max(now, time);
+    }
+}